@@ -0,0 +1,42 @@
+package com.luxestore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * {@code server.execution-mode=virtual} serves every request, and every MVC async task
+ * (streaming bodies, CompletableFuture handlers), on its own virtual thread instead of
+ * Tomcat's bounded platform pool. A request blocked on JDBC or on the payment gateway then
+ * parks cheaply instead of holding an OS thread, so slow checkouts no longer cap
+ * concurrency.
+ *
+ * <p>The database stays bounded by the Hikari pool ({@code spring.datasource.hikari.*}),
+ * which becomes the real concurrency limit: extra requests wait in the pool queue for up to
+ * {@code connection-timeout}. CPU-bound work such as BCrypt keeps its own platform pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.execution-mode", havingValue = "virtual")
+public class ExecutionModeConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(ExecutionModeConfig.class);
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+    log.info("Serving requests on virtual threads");
+    return handler -> handler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public AsyncTaskExecutor applicationTaskExecutor() {
+    return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+  }
+}
@@ -0,0 +1,28 @@
+package com.luxestore;
+
+import com.stripe.Stripe;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Applies the Stripe API key and, for benchmarks and local runs, an alternative API base
+ * URL such as a local stub ({@code stripe.api-base=http://localhost:12111}).
+ */
+@Configuration
+public class StripeConfig {
+
+  @Value("${stripe.apiKey:}")
+  private String apiKey;
+
+  @Value("${stripe.api-base:}")
+  private String apiBase;
+
+  @PostConstruct
+  void configure() {
+    if (!apiKey.isBlank()) Stripe.apiKey = apiKey;
+    if (!apiBase.isBlank()) Stripe.overrideApiBase(apiBase);
+  }
+}
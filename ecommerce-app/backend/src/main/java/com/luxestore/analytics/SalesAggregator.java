@@ -0,0 +1,247 @@
+package com.luxestore.analytics;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes the sales rollups from scratch. The reading thread packs order and line rows into
+ * fixed-size column blocks (primitive arrays, categories dictionary-coded) and hands each
+ * full block to a fork/join pool, where every worker folds blocks into its own partial
+ * totals. At most two blocks per worker are in flight, so reading never runs ahead of the
+ * folding; a block is unreachable once folded, so memory stays bounded whatever the order
+ * history size. {@link #finish()} waits for the folds by taking back every in-flight permit,
+ * then merges the per-worker partials pairwise as a fork/join tree.
+ *
+ * <p>Lines must arrive grouped by order. A product's order count then goes up once per order
+ * containing it, however many lines the order has for it, as it does for
+ * {@code SalesAnalyticsService.apply}; the reading thread marks those first lines, since
+ * one order's lines may be split across blocks folded by different workers.
+ *
+ * <p>Single use: feed rows from one thread, then call {@link #finish()} once.
+ */
+final class SalesAggregator {
+
+  static final int BLOCK_ROWS = 16_384;
+
+  /** Running totals for one day, product or category. */
+  static final class Totals {
+    long orders;
+    long units;
+    double revenue;
+    String name;
+
+    void add(Totals o) {
+      orders += o.orders;
+      units += o.units;
+      revenue += o.revenue;
+      if (name == null) name = o.name;
+    }
+  }
+
+  record Result(Map<LocalDate, Totals> days, Map<Long, Totals> products, Map<String, Totals> categories,
+                long orders, long lines) {}
+
+  private final ForkJoinPool pool;
+  private final ZoneId zone;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private final Map<Thread, Partial> partials = new ConcurrentHashMap<>();
+  private final Map<String, Integer> categoryCodes = new HashMap<>();
+  private final List<String> categoryNames = new ArrayList<>();
+  // Products already seen in the order whose lines are being read
+  private final Set<Long> orderProducts = new HashSet<>();
+  private long currentOrder;
+
+  private OrderBlock orderBlock = new OrderBlock();
+  private LineBlock lineBlock = new LineBlock();
+  private long orders;
+  private long lines;
+
+  SalesAggregator(ForkJoinPool pool, ZoneId zone) {
+    this.pool = pool;
+    this.zone = zone;
+    this.maxInFlight = pool.getParallelism() * 2;
+    this.inFlight = new Semaphore(maxInFlight);
+  }
+
+  void order(Timestamp orderDate, double total) {
+    if (orderDate == null) return;
+    OrderBlock b = orderBlock;
+    b.day[b.size] = epochDay(orderDate);
+    b.total[b.size] = total;
+    orders++;
+    if (++b.size == BLOCK_ROWS) {
+      submit(b);
+      orderBlock = new OrderBlock();
+    }
+  }
+
+  void line(long orderId, Timestamp orderDate, long productId, String name, String category, int quantity,
+            double unitPrice) {
+    if (orderDate == null) return;
+    if (orderId != currentOrder) {
+      currentOrder = orderId;
+      orderProducts.clear();
+    }
+    LineBlock b = lineBlock;
+    int i = b.size;
+    b.day[i] = epochDay(orderDate);
+    b.product[i] = productId;
+    b.firstInOrder[i] = orderProducts.add(productId);
+    b.name[i] = name;
+    b.category[i] = categoryCodes.computeIfAbsent(category == null ? "" : category, c -> {
+      categoryNames.add(c);
+      return categoryNames.size() - 1;
+    });
+    b.quantity[i] = quantity;
+    b.revenue[i] = quantity * unitPrice;
+    lines++;
+    if (++b.size == BLOCK_ROWS) {
+      submit(b);
+      lineBlock = new LineBlock();
+    }
+  }
+
+  Result finish() {
+    if (orderBlock.size > 0) submit(orderBlock);
+    if (lineBlock.size > 0) submit(lineBlock);
+    inFlight.acquireUninterruptibly(maxInFlight);
+    inFlight.release(maxInFlight);
+    Throwable failed = failure.get();
+    if (failed instanceof RuntimeException re) throw re;
+    if (failed instanceof Error e) throw e;
+
+    Partial total = partials.isEmpty() ? new Partial()
+        : pool.invoke(new Merge(new ArrayList<>(partials.values()), 0, partials.size()));
+    Map<LocalDate, Totals> days = new HashMap<>(total.days.size() * 2);
+    total.days.forEach((day, t) -> days.put(LocalDate.ofEpochDay(day), t));
+    Map<String, Totals> categories = new HashMap<>();
+    for (int c = 0; c < total.categories.length; c++) {
+      if (total.categories[c] != null) categories.put(categoryNames.get(c), total.categories[c]);
+    }
+    return new Result(days, total.products, categories, orders, lines);
+  }
+
+  private void submit(Object block) {
+    inFlight.acquireUninterruptibly();
+    // Not submit(): the returned task would keep the block reachable until finish()
+    pool.execute(() -> {
+      try {
+        if (failure.get() != null) return;
+        Partial p = partials.computeIfAbsent(Thread.currentThread(), t -> new Partial());
+        if (block instanceof OrderBlock b) {
+          p.fold(b);
+        } else {
+          p.fold((LineBlock) block);
+        }
+      } catch (Throwable t) {
+        failure.compareAndSet(null, t);
+      } finally {
+        inFlight.release();
+      }
+    });
+  }
+
+  private long epochDay(Timestamp ts) {
+    return LocalDate.ofInstant(ts.toInstant(), zone).toEpochDay();
+  }
+
+  private static final class OrderBlock {
+    final long[] day = new long[BLOCK_ROWS];
+    final double[] total = new double[BLOCK_ROWS];
+    int size;
+  }
+
+  private static final class LineBlock {
+    final long[] day = new long[BLOCK_ROWS];
+    final long[] product = new long[BLOCK_ROWS];
+    final boolean[] firstInOrder = new boolean[BLOCK_ROWS];
+    final String[] name = new String[BLOCK_ROWS];
+    final int[] category = new int[BLOCK_ROWS];
+    final int[] quantity = new int[BLOCK_ROWS];
+    final double[] revenue = new double[BLOCK_ROWS];
+    int size;
+  }
+
+  // Owned by one worker thread while folding; merged only after every fold has finished
+  private static final class Partial {
+    final Map<Long, Totals> days = new HashMap<>();
+    final Map<Long, Totals> products = new HashMap<>();
+    Totals[] categories = new Totals[16];
+
+    void fold(OrderBlock b) {
+      for (int i = 0; i < b.size; i++) {
+        Totals t = days.computeIfAbsent(b.day[i], d -> new Totals());
+        t.orders++;
+        t.revenue += b.total[i];
+      }
+    }
+
+    void fold(LineBlock b) {
+      for (int i = 0; i < b.size; i++) {
+        days.computeIfAbsent(b.day[i], d -> new Totals()).units += b.quantity[i];
+        Totals p = products.computeIfAbsent(b.product[i], id -> new Totals());
+        if (b.firstInOrder[i]) p.orders++;
+        p.units += b.quantity[i];
+        p.revenue += b.revenue[i];
+        if (p.name == null) p.name = b.name[i];
+        Totals c = category(b.category[i]);
+        c.units += b.quantity[i];
+        c.revenue += b.revenue[i];
+      }
+    }
+
+    void merge(Partial o) {
+      o.days.forEach((k, t) -> days.merge(k, t, (a, b) -> { a.add(b); return a; }));
+      o.products.forEach((k, t) -> products.merge(k, t, (a, b) -> { a.add(b); return a; }));
+      for (int c = 0; c < o.categories.length; c++) {
+        if (o.categories[c] != null) category(c).add(o.categories[c]);
+      }
+    }
+
+    private Totals category(int code) {
+      if (code >= categories.length) categories = Arrays.copyOf(categories, Math.max(code + 1, categories.length * 2));
+      Totals t = categories[code];
+      if (t == null) categories[code] = t = new Totals();
+      return t;
+    }
+  }
+
+  private static final class Merge extends RecursiveTask<Partial> {
+    private final List<Partial> parts;
+    private final int from;
+    private final int to;
+
+    Merge(List<Partial> parts, int from, int to) {
+      this.parts = parts;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Partial compute() {
+      if (to - from == 1) return parts.get(from);
+      int mid = (from + to) >>> 1;
+      Merge left = new Merge(parts, from, mid);
+      left.fork();
+      Partial right = new Merge(parts, mid, to).compute();
+      Partial merged = left.join();
+      merged.merge(right);
+      return merged;
+    }
+  }
+}
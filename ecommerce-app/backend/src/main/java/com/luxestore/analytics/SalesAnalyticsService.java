@@ -0,0 +1,267 @@
+package com.luxestore.analytics;
+
+import com.luxestore.dto.CategorySales;
+import com.luxestore.dto.ProductSales;
+import com.luxestore.dto.RevenueBucket;
+import com.luxestore.event.OrderPlaced;
+import com.luxestore.outbox.OutboxDispatcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sales dashboards backed by three rollup tables (per day, per product, per category) so
+ * reads never touch order history.
+ *
+ * <p>The rollups are kept current by {@link SalesRollupHandler}, which applies each placed
+ * order from the outbox. {@code orders.rolled_up} records which orders the rollups contain:
+ * an order is applied only by the transaction that flips its flag from false to true, so a
+ * redelivered event, or one for an order a rebuild already counted, changes nothing.
+ * {@link #rebuild()} recomputes everything from order history with a fork/join
+ * aggregation; it runs at startup when the rollups are empty and on demand after a repair.
+ * The handler runs only on the outbox dispatcher, which a rebuild pauses, so the two never
+ * interleave; for the same reason a rebuild must run on the instance that dispatches.
+ */
+@Service
+public class SalesAnalyticsService {
+
+  private static final Logger log = LoggerFactory.getLogger(SalesAnalyticsService.class);
+
+  public enum Bucket { DAY, WEEK, MONTH }
+
+  private static final String CLAIM_SQL = "UPDATE orders SET rolled_up = TRUE WHERE id = ? AND rolled_up = FALSE";
+
+  // Same MERGE shape as the cart upsert; a concurrent first insert of a key fails the
+  // event's transaction and the outbox retries it
+  private static final String MERGE_DAY_SQL =
+      "MERGE INTO daily_sales_rollup r "
+      + "USING (VALUES (CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS DOUBLE PRECISION))) AS s (sales_date, units, revenue) "
+      + "ON r.sales_date = s.sales_date "
+      + "WHEN MATCHED THEN UPDATE SET order_count = r.order_count + 1, units = r.units + s.units, revenue = r.revenue + s.revenue "
+      + "WHEN NOT MATCHED THEN INSERT (sales_date, order_count, units, revenue) VALUES (s.sales_date, 1, s.units, s.revenue)";
+
+  private static final String MERGE_PRODUCT_SQL =
+      "MERGE INTO product_sales_rollup r "
+      + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS BIGINT), CAST(? AS DOUBLE PRECISION))) "
+      + "AS s (product_id, product_name, units, revenue) "
+      + "ON r.product_id = s.product_id "
+      + "WHEN MATCHED THEN UPDATE SET product_name = COALESCE(s.product_name, r.product_name), "
+      + "order_count = r.order_count + 1, units = r.units + s.units, revenue = r.revenue + s.revenue "
+      + "WHEN NOT MATCHED THEN INSERT (product_id, product_name, order_count, units, revenue) "
+      + "VALUES (s.product_id, s.product_name, 1, s.units, s.revenue)";
+
+  private static final String MERGE_CATEGORY_SQL =
+      "MERGE INTO category_sales_rollup r "
+      + "USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS BIGINT), CAST(? AS DOUBLE PRECISION))) AS s (category, units, revenue) "
+      + "ON r.category = s.category "
+      + "WHEN MATCHED THEN UPDATE SET units = r.units + s.units, revenue = r.revenue + s.revenue "
+      + "WHEN NOT MATCHED THEN INSERT (category, units, revenue) VALUES (s.category, s.units, s.revenue)";
+
+  private static final String REBUILD_ORDERS_SQL = "SELECT order_date, total FROM orders WHERE rolled_up = TRUE";
+
+  // Grouped by order for SalesAggregator's per-order product counts; idx_order_lines_order serves the sort
+  private static final String REBUILD_LINES_SQL =
+      "SELECT l.order_id, o.order_date, l.product_id, l.product_name, l.category, l.quantity, l.unit_price "
+      + "FROM order_lines l JOIN orders o ON o.id = l.order_id WHERE o.rolled_up = TRUE ORDER BY l.order_id";
+
+  private final JdbcTemplate jdbc;
+  private final JdbcTemplate streamingJdbc;
+  private final TransactionTemplate tx;
+  private final OutboxDispatcher dispatcher;
+  private final ZoneId zone;
+  private final ForkJoinPool pool;
+
+  public SalesAnalyticsService(JdbcTemplate jdbc, DataSource dataSource, TransactionTemplate tx,
+                               OutboxDispatcher dispatcher,
+                               @Value("${analytics.zone:UTC}") ZoneId zone,
+                               @Value("${analytics.parallelism:0}") int parallelism) {
+    this.jdbc = jdbc;
+    // Rebuild reads every order and line once, so pull rows in chunks instead of all at once
+    this.streamingJdbc = new JdbcTemplate(dataSource);
+    this.streamingJdbc.setFetchSize(1000);
+    this.tx = tx;
+    this.dispatcher = dispatcher;
+    this.zone = zone;
+    this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  // After the itemsJson migration, which may still be creating order lines
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  public void backfill() {
+    // Another instance dispatches the outbox and owns the rollups
+    if (!dispatcher.isEnabled()) return;
+    Boolean empty = jdbc.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM daily_sales_rollup)", Boolean.class);
+    Boolean hasOrders = jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM orders)", Boolean.class);
+    if (Boolean.TRUE.equals(empty) && Boolean.TRUE.equals(hasOrders)) rebuild();
+  }
+
+  /**
+   * Adds a placed order to the rollups, unless they already contain it. Runs in the
+   * caller's transaction so the flag and the increments commit together.
+   *
+   * @return whether the order was applied
+   */
+  @Transactional
+  public boolean apply(OrderPlaced order) {
+    if (jdbc.update(CLAIM_SQL, order.orderId()) == 0) return false;
+
+    // Summed per key and applied in key order so concurrent orders lock rollup rows in the same order
+    Map<Long, Object[]> products = new TreeMap<>();
+    Map<String, double[]> categories = new TreeMap<>();
+    long units = 0;
+    for (OrderPlaced.Line l : order.lines()) {
+      double revenue = l.quantity() * l.unitPrice();
+      units += l.quantity();
+      Object[] p = products.computeIfAbsent(l.productId(), id -> new Object[] { id, l.productName(), 0L, 0.0 });
+      p[2] = (Long) p[2] + l.quantity();
+      p[3] = (Double) p[3] + revenue;
+      double[] c = categories.computeIfAbsent(l.category() == null ? "" : l.category(), k -> new double[2]);
+      c[0] += l.quantity();
+      c[1] += revenue;
+    }
+
+    jdbc.update(MERGE_DAY_SQL, Date.valueOf(LocalDate.ofInstant(order.orderedAt(), zone)), units, order.total());
+    if (!products.isEmpty()) jdbc.batchUpdate(MERGE_PRODUCT_SQL, new ArrayList<>(products.values()));
+    if (!categories.isEmpty()) {
+      List<Object[]> rows = new ArrayList<>(categories.size());
+      categories.forEach((k, c) -> rows.add(new Object[] { k, (long) c[0], c[1] }));
+      jdbc.batchUpdate(MERGE_CATEGORY_SQL, rows);
+    }
+    return true;
+  }
+
+  /**
+   * Recomputes the rollups from order history in one transaction. Every order not yet
+   * counted is claimed first, so orders whose events are still queued are counted here and
+   * skipped by the handler; orders placed while the rebuild runs are left to the handler.
+   *
+   * <p>Outbox delivery is paused for the duration. Otherwise an order placed after the claim
+   * could have its increments committed between the scan and the delete below, and be lost
+   * from the rollups while flagged as counted. Once delivery resumes, such orders are
+   * applied on top of the rebuilt rows.
+   *
+   * @return orders and lines aggregated, and the elapsed time
+   * @throws IllegalStateException if this instance does not dispatch the outbox
+   */
+  public synchronized Map<String, Object> rebuild() {
+    if (!dispatcher.isEnabled()) {
+      throw new IllegalStateException("Rollups can only be rebuilt on the instance that dispatches the outbox");
+    }
+    long started = System.nanoTime();
+    SalesAggregator.Result r = dispatcher.exclusive(() -> tx.execute(status -> {
+      jdbc.update("UPDATE orders SET rolled_up = TRUE WHERE rolled_up = FALSE");
+      SalesAggregator agg = new SalesAggregator(pool, zone);
+      streamingJdbc.query(REBUILD_ORDERS_SQL, rs -> {
+        agg.order(rs.getTimestamp(1), rs.getDouble(2));
+      });
+      streamingJdbc.query(REBUILD_LINES_SQL, rs -> {
+        agg.line(rs.getLong(1), rs.getTimestamp(2), rs.getLong(3), rs.getString(4), rs.getString(5), rs.getInt(6),
+            rs.getDouble(7));
+      });
+      SalesAggregator.Result result = agg.finish();
+      replace(result);
+      return result;
+    }));
+    long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+    log.info("Rebuilt sales rollups from {} orders and {} lines in {} ms", r.orders(), r.lines(), elapsedMs);
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("orders", r.orders());
+    summary.put("lines", r.lines());
+    summary.put("elapsedMs", elapsedMs);
+    return summary;
+  }
+
+  private void replace(SalesAggregator.Result r) {
+    jdbc.update("DELETE FROM daily_sales_rollup");
+    jdbc.update("DELETE FROM product_sales_rollup");
+    jdbc.update("DELETE FROM category_sales_rollup");
+
+    List<Object[]> rows = new ArrayList<>(r.days().size());
+    r.days().forEach((day, t) -> rows.add(new Object[] { Date.valueOf(day), t.orders, t.units, t.revenue }));
+    insert("INSERT INTO daily_sales_rollup (sales_date, order_count, units, revenue) VALUES (?, ?, ?, ?)", rows);
+
+    rows.clear();
+    r.products().forEach((id, t) -> rows.add(new Object[] { id, t.name, t.orders, t.units, t.revenue }));
+    insert("INSERT INTO product_sales_rollup (product_id, product_name, order_count, units, revenue) VALUES (?, ?, ?, ?, ?)", rows);
+
+    rows.clear();
+    r.categories().forEach((category, t) -> rows.add(new Object[] { category, t.units, t.revenue }));
+    insert("INSERT INTO category_sales_rollup (category, units, revenue) VALUES (?, ?, ?)", rows);
+  }
+
+  private void insert(String sql, List<Object[]> rows) {
+    for (int i = 0; i < rows.size(); i += 1000) {
+      jdbc.batchUpdate(sql, rows.subList(i, Math.min(i + 1000, rows.size())));
+    }
+  }
+
+  /** Sales per bucket for the days {@code from}..{@code to} inclusive, empty buckets omitted. */
+  public List<RevenueBucket> revenue(LocalDate from, LocalDate to, Bucket bucket) {
+    Map<LocalDate, long[]> counts = new TreeMap<>();
+    Map<LocalDate, Double> revenue = new TreeMap<>();
+    jdbc.query("SELECT sales_date, order_count, units, revenue FROM daily_sales_rollup "
+        + "WHERE sales_date BETWEEN ? AND ?", rs -> {
+      LocalDate start = bucketStart(rs.getDate(1).toLocalDate(), bucket);
+      long[] c = counts.computeIfAbsent(start, d -> new long[2]);
+      c[0] += rs.getLong(2);
+      c[1] += rs.getLong(3);
+      revenue.merge(start, rs.getDouble(4), Double::sum);
+    }, Date.valueOf(from), Date.valueOf(to));
+    List<RevenueBucket> out = new ArrayList<>(counts.size());
+    counts.forEach((start, c) -> out.add(new RevenueBucket(start, c[0], c[1], revenue.get(start))));
+    return out;
+  }
+
+  private static LocalDate bucketStart(LocalDate day, Bucket bucket) {
+    return switch (bucket) {
+      case DAY -> day;
+      case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+      case MONTH -> day.withDayOfMonth(1);
+    };
+  }
+
+  public List<ProductSales> topProducts(int limit) {
+    return jdbc.query("SELECT product_id, product_name, units, revenue FROM product_sales_rollup "
+            + "ORDER BY revenue DESC, product_id LIMIT ?",
+        (rs, i) -> new ProductSales(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getDouble(4)),
+        Math.max(1, Math.min(limit, 500)));
+  }
+
+  public List<CategorySales> categoryTotals() {
+    return jdbc.query("SELECT category, units, revenue FROM category_sales_rollup ORDER BY revenue DESC",
+        (rs, i) -> new CategorySales(rs.getString(1).isEmpty() ? null : rs.getString(1), rs.getLong(2), rs.getDouble(3)));
+  }
+
+  public ZoneId zone() {
+    return zone;
+  }
+}
@@ -0,0 +1,36 @@
+package com.luxestore.analytics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luxestore.event.OrderPlaced;
+import com.luxestore.outbox.OutboxEventHandler;
+import com.luxestore.outbox.OutboxMessage;
+
+import org.springframework.stereotype.Component;
+
+/** Folds each placed order into the sales rollups as its outbox event is delivered. */
+@Component
+public class SalesRollupHandler implements OutboxEventHandler {
+
+  private final SalesAnalyticsService analytics;
+  private final ObjectMapper mapper;
+
+  public SalesRollupHandler(SalesAnalyticsService analytics, ObjectMapper mapper) {
+    this.analytics = analytics;
+    this.mapper = mapper;
+  }
+
+  @Override
+  public boolean handles(String type) {
+    return OrderPlaced.TYPE.equals(type);
+  }
+
+  @Override
+  public void handle(OutboxMessage message) {
+    try {
+      analytics.apply(mapper.readValue(message.payload(), OrderPlaced.class));
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Malformed " + message.type() + " payload in outbox event " + message.id(), e);
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package com.luxestore.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Small in-process LRU cache with a per-entry time-to-live and hit/miss/eviction counters.
+ *
+ * <p>Loads that race with an invalidation are discarded instead of stored: every
+ * invalidation bumps a generation number and {@link #getOrLoad} only publishes a value
+ * loaded under the generation it started with. That keeps a slow read that began before a
+ * write from re-populating the cache with the pre-write value.
+ */
+public class BoundedCache<K, V> {
+
+  private final String name;
+  private final int maxSize;
+  private final long ttlNanos;
+  private final LinkedHashMap<K, Entry<V>> map;
+
+  private long generation;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long expirations;
+
+  public BoundedCache(String name, int maxSize, Duration ttl) {
+    if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive");
+    this.name = name;
+    this.maxSize = maxSize;
+    this.ttlNanos = ttl.toNanos();
+    this.map = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        if (size() > BoundedCache.this.maxSize) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public String getName() { return name; }
+
+  /** Returns the cached value or null when absent or expired. */
+  public synchronized V get(K key) {
+    Entry<V> e = map.get(key);
+    if (e == null) {
+      misses++;
+      return null;
+    }
+    if (e.expiresAt - System.nanoTime() <= 0) {
+      map.remove(key);
+      expirations++;
+      misses++;
+      return null;
+    }
+    hits++;
+    return e.value;
+  }
+
+  /**
+   * Read-through lookup. The loader runs outside the cache lock so a slow load does not
+   * block readers of other keys; a null result is returned but not cached.
+   */
+  public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+    long startGeneration;
+    synchronized (this) {
+      V cached = get(key);
+      if (cached != null) return cached;
+      startGeneration = generation;
+    }
+    V loaded = loader.apply(key);
+    if (loaded != null) {
+      synchronized (this) {
+        if (generation == startGeneration) {
+          map.put(key, new Entry<>(loaded, System.nanoTime() + ttlNanos));
+        }
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Atomically returns the live value or stores the one created by {@code factory}. Unlike
+   * {@link #getOrLoad} the factory runs under the cache lock, so it must be cheap.
+   */
+  public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+    V cached = get(key);
+    if (cached != null) return cached;
+    V created = factory.apply(key);
+    put(key, created, ttlNanos);
+    return created;
+  }
+
+  public void put(K key, V value) {
+    put(key, value, ttlNanos);
+  }
+
+  /** Stores a value with its own lifetime, capped at the cache-wide TTL. */
+  public synchronized void put(K key, V value, Duration ttl) {
+    put(key, value, Math.min(ttl.toNanos(), ttlNanos));
+  }
+
+  private synchronized void put(K key, V value, long lifetimeNanos) {
+    if (lifetimeNanos <= 0) return;
+    map.put(key, new Entry<>(value, System.nanoTime() + lifetimeNanos));
+  }
+
+  /**
+   * Replaces a live value with {@code remap} applied to it, keeping its expiry; absent or
+   * expired keys are left alone. Like an invalidation it discards loads in flight, which
+   * may have read the state from before the write being applied here.
+   */
+  public synchronized void computeIfPresent(K key, UnaryOperator<V> remap) {
+    generation++;
+    Entry<V> e = map.get(key);
+    if (e == null) return;
+    if (e.expiresAt - System.nanoTime() <= 0) {
+      map.remove(key);
+      expirations++;
+      return;
+    }
+    map.put(key, new Entry<>(remap.apply(e.value), e.expiresAt));
+  }
+
+  public synchronized void invalidate(K key) {
+    generation++;
+    map.remove(key);
+  }
+
+  public synchronized void invalidateAll() {
+    generation++;
+    map.clear();
+  }
+
+  /** Drops expired entries; lookups also expire lazily, this just reclaims memory. */
+  public synchronized int purgeExpired() {
+    long now = System.nanoTime();
+    int removed = 0;
+    for (Iterator<Entry<V>> it = map.values().iterator(); it.hasNext(); ) {
+      if (it.next().expiresAt - now <= 0) {
+        it.remove();
+        removed++;
+      }
+    }
+    expirations += removed;
+    return removed;
+  }
+
+  public synchronized int size() {
+    return map.size();
+  }
+
+  public synchronized CacheStats stats() {
+    return new CacheStats(name, map.size(), maxSize, hits, misses, evictions, expirations);
+  }
+
+  private record Entry<V>(V value, long expiresAt) {}
+}
@@ -0,0 +1,12 @@
+package com.luxestore.cache;
+
+/**
+ * Point-in-time counters of a {@link BoundedCache}.
+ */
+public record CacheStats(String name, int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+
+  public double hitRatio() {
+    long total = hits + misses;
+    return total == 0 ? 0 : (double) hits / total;
+  }
+}
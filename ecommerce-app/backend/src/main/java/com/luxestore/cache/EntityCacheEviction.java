@@ -0,0 +1,35 @@
+package com.luxestore.cache;
+
+import com.luxestore.event.ProductChangedEvent;
+import com.luxestore.model.Product;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps Hibernate's second-level cache honest about writes it does not see: stock is moved
+ * with JdbcTemplate batches, which bypass the persistence context. Runs before the other
+ * product listeners so caches above it reload from the database, not from a stale entry.
+ * A no-op while the second-level cache is disabled.
+ */
+@Component
+public class EntityCacheEviction {
+
+  private final EntityManagerFactory emf;
+
+  public EntityCacheEviction(EntityManagerFactory emf) {
+    this.emf = emf;
+  }
+
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    for (Long id : event.productIds()) {
+      emf.getCache().evict(Product.class, id);
+    }
+  }
+}
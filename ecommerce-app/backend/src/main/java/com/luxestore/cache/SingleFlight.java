@@ -0,0 +1,79 @@
+package com.luxestore.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical reads into one call. The first caller for a key runs the
+ * call; callers arriving while it runs wait for it and get the same result or exception
+ * instead of issuing their own query. Nothing is kept once the call returns, so this
+ * sits under a cache to stop a miss on a hot key from becoming a stampede on the database.
+ *
+ * <p>Callers that joined share one result object, which must therefore be immutable or
+ * treated as read-only. After a write commits, {@link #forget} the keys it affects so
+ * that later callers start a fresh call rather than joining one that may have read the
+ * state from before the write.
+ *
+ * <p>Counts calls as {@code singleflight.calls}, tagged with the name and
+ * {@code executed} or {@code coalesced}, and gauges {@code singleflight.in_flight}.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+  private final Counter executed;
+  private final Counter coalesced;
+
+  public SingleFlight(String name, MeterRegistry meters) {
+    this.executed = meters.counter("singleflight.calls", "name", name, "outcome", "executed");
+    this.coalesced = meters.counter("singleflight.calls", "name", name, "outcome", "coalesced");
+    Gauge.builder("singleflight.in_flight", calls, ConcurrentHashMap::size)
+        .tag("name", name)
+        .register(meters);
+  }
+
+  public V execute(K key, Supplier<? extends V> call) {
+    CompletableFuture<V> mine = new CompletableFuture<>();
+    CompletableFuture<V> running = calls.putIfAbsent(key, mine);
+    if (running != null) {
+      coalesced.increment();
+      return await(running);
+    }
+    executed.increment();
+    try {
+      V result = call.get();
+      mine.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      calls.remove(key, mine);
+    }
+  }
+
+  /** Makes the next caller for {@code key} start a new call even if one is running. */
+  public void forget(K key) {
+    calls.remove(key);
+  }
+
+  public void forgetAll() {
+    calls.clear();
+  }
+
+  private static <V> V await(CompletableFuture<V> running) {
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      // Rethrow what the leading caller saw, unwrapped
+      if (e.getCause() instanceof RuntimeException re) throw re;
+      if (e.getCause() instanceof Error err) throw err;
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.luxestore.controller;
+
+import com.luxestore.analytics.SalesAnalyticsService;
+import com.luxestore.analytics.SalesAnalyticsService.Bucket;
+import com.luxestore.dto.CategorySales;
+import com.luxestore.dto.ProductSales;
+import com.luxestore.dto.RevenueBucket;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/** Sales dashboards, served from the rollup tables. ADMIN only, like all of /api/admin. */
+@RestController
+@RequestMapping("/api/admin/analytics")
+@CrossOrigin(origins = "http://localhost:3000")
+public class AnalyticsController {
+
+  // Ten years of days; the rollup holds one row per day so this bounds the read
+  private static final long MAX_RANGE_DAYS = 3660;
+
+  private final SalesAnalyticsService analytics;
+
+  public AnalyticsController(SalesAnalyticsService analytics) {
+    this.analytics = analytics;
+  }
+
+  // Defaults to the last 30 days, in the zone the rollups are bucketed in
+  @GetMapping("/revenue")
+  public List<RevenueBucket> revenue(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                     @RequestParam(defaultValue = "day") String bucket) {
+    Bucket b;
+    try {
+      b = Bucket.valueOf(bucket.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bucket must be day, week or month");
+    }
+    LocalDate end = to != null ? to : LocalDate.now(analytics.zone());
+    LocalDate start = from != null ? from : end.minusDays(29);
+    if (start.isAfter(end)) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+    if (ChronoUnit.DAYS.between(start, end) > MAX_RANGE_DAYS) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "range must be at most " + MAX_RANGE_DAYS + " days");
+    }
+    return analytics.revenue(start, end, b);
+  }
+
+  @GetMapping("/products")
+  public List<ProductSales> topProducts(@RequestParam(defaultValue = "10") int limit) {
+    return analytics.topProducts(limit);
+  }
+
+  @GetMapping("/categories")
+  public List<CategorySales> categories() {
+    return analytics.categoryTotals();
+  }
+
+  // Recomputes the rollups from order history, e.g. after orders were corrected by hand.
+  // Scans and claims every order row, so it stays behind the ADMIN rule with the rest
+  @PostMapping("/rebuild")
+  public Map<String, Object> rebuild() {
+    try {
+      return analytics.rebuild();
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+    }
+  }
+}
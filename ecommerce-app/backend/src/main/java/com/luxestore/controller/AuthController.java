@@ -3,44 +3,120 @@ package com.luxestore.controller;
 import com.luxestore.model.User;
 import com.luxestore.repository.UserRepository;
 import com.luxestore.security.JwtUtils;
+import com.luxestore.security.LoginRateLimiter;
+import com.luxestore.security.PasswordHashingService;
+import com.luxestore.service.CustomUserDetailsService;
+import com.luxestore.service.CustomUserDetailsService.Principal;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+/**
+ * Signup and login hash on the bounded {@link PasswordHashingService} pool and return a
+ * CompletableFuture, so the Tomcat thread is released while BCrypt runs. What follows the
+ * hash (saving the user, signing the token) continues on the application task executor, so
+ * the hashing threads only ever hash.
+ */
 @RestController
 @RequestMapping("/api/auth") // Changed base path to avoid conflicts
 @CrossOrigin(origins = "http://localhost:3000")
 public class AuthController {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final UserRepository repo;
-    private final PasswordEncoder encoder;
+    private final PasswordHashingService hashing;
+    private final LoginRateLimiter rateLimiter;
     private final JwtUtils jwtUtils;
+    private final CustomUserDetailsService userDetails;
+    private final Executor requestExecutor;
 
-    public AuthController(UserRepository repo, PasswordEncoder encoder, JwtUtils jwtUtils) {
+    public AuthController(UserRepository repo, PasswordHashingService hashing, LoginRateLimiter rateLimiter,
+                          JwtUtils jwtUtils, CustomUserDetailsService userDetails,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor requestExecutor) {
         this.repo = repo;
-        this.encoder = encoder;
+        this.hashing = hashing;
+        this.rateLimiter = rateLimiter;
         this.jwtUtils = jwtUtils;
+        this.userDetails = userDetails;
+        this.requestExecutor = requestExecutor;
     }
 
     @PostMapping("/signup")
-    public User signup(@RequestBody User user) {
-        user.setPassword(encoder.encode(user.getPassword()));
-        user.setRoles(Set.of("ROLE_USER"));
-        return repo.save(user);
+    public CompletableFuture<User> signup(@RequestBody User user) {
+        return submit(() -> hashing.encode(user.getPassword()))
+            .thenApplyAsync(hash -> {
+                user.setPassword(hash);
+                user.setRoles(Set.of("ROLE_USER"));
+                User saved = repo.save(user);
+                userDetails.evict(saved.getEmail());
+                return saved;
+            }, requestExecutor)
+            .exceptionally(AuthController::rethrow);
     }
+
     @PostMapping("/login")
-    public Map<String, String> login(@RequestBody Map<String, String> body) {
-        User user = repo.findByEmail(body.get("email"))
+    public CompletableFuture<Map<String, String>> login(@RequestBody Map<String, String> body, HttpServletRequest request) {
+        String email = body.get("email");
+        String password = body.get("password");
+        if (!rateLimiter.tryAcquire(request.getRemoteAddr(), email)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, try again later");
+        }
+        Principal user = userDetails.findPrincipal(email)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
-        if (encoder.matches(body.get("password"), user.getPassword())) {
-            String token = jwtUtils.generateToken(user.getEmail());
-            return Map.of("token", token, "role", user.getRoles().toString(), "name", user.getName(), "id", user.getId().toString());
-        } else {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+        return submit(() -> hashing.matches(password, user.passwordHash()))
+            .thenApplyAsync(ok -> {
+                if (!ok) throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+                if (hashing.needsRehash(user.passwordHash())) rehash(user, password);
+                String token = jwtUtils.generateToken(user.email(), user.roles());
+                return Map.of("token", token, "role", user.roles().toString(), "name", user.name(), "id", user.id().toString());
+            }, requestExecutor)
+            .exceptionally(AuthController::rethrow);
+    }
+
+    // The stored hash predates a BCrypt cost increase; upgrade it while we hold the plaintext
+    private void rehash(Principal user, String password) {
+        try {
+            hashing.encode(password).thenAcceptAsync(hash -> {
+                repo.updatePassword(user.id(), hash);
+                userDetails.evict(user.email());
+            }, requestExecutor).exceptionally(ex -> {
+                log.warn("Rehash of user {} failed: {}", user.id(), ex.toString());
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool is saturated; the upgrade simply happens on a later login
+        }
+    }
+
+    private static <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        try {
+            return task.get();
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Authentication is busy, retry shortly");
+        }
+    }
+
+    private static <T> T rethrow(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TimeoutException) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Authentication is busy, retry shortly");
         }
+        if (cause instanceof RuntimeException re) throw re;
+        throw new CompletionException(cause);
     }
-}
\ No newline at end of file
+}
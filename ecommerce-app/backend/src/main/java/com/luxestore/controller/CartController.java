@@ -1,11 +1,17 @@
 package com.luxestore.controller;
 
+import com.luxestore.dto.CartView;
 import com.luxestore.model.CartItem;
-import com.luxestore.repository.CartRepository;
+import com.luxestore.service.CartService;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 
 import com.luxestore.repository.ProductRepository;
 
@@ -13,38 +19,54 @@ import com.luxestore.repository.ProductRepository;
 @RequestMapping("/api/cart")
 @CrossOrigin(origins = "http://localhost:3000")
 public class CartController {
-  private final CartRepository repo;
   private final ProductRepository productRepo;
-  public CartController(CartRepository repo, ProductRepository productRepo) {
-    this.repo = repo;
+  private final CartService carts;
+  public CartController(ProductRepository productRepo, CartService carts) {
     this.productRepo = productRepo;
+    this.carts = carts;
   }
 
   @GetMapping("/{userId}")
   public List<CartItem> getForUser(@PathVariable Long userId) {
-    return repo.findByUserId(userId);
+    return carts.items(userId);
+  }
+
+  // Priced cart in one query; the ETag lets clients revalidate with If-None-Match and get a 304
+  @GetMapping("/{userId}/view")
+  public ResponseEntity<CartView> view(@PathVariable Long userId) {
+    CartView view = carts.view(userId);
+    return ResponseEntity.ok()
+        .eTag(view.etag())
+        .cacheControl(CacheControl.noCache().cachePrivate())
+        .body(view);
   }
 
   @PostMapping
   public CartItem add(@RequestBody CartItem ci) {
-    // if exists, update quantity (simple naive approach)
-    List<CartItem> existing = repo.findByUserId(ci.getUserId()).stream().filter(i -> i.getProductId().equals(ci.getProductId())).toList();
-    if (!existing.isEmpty()) {
-      CartItem e = existing.get(0);
-      e.setQuantity(e.getQuantity() + ci.getQuantity());
-      e.setImageurl(e.getImageurl());
-      return repo.save(e);
+    try {
+      return carts.add(ci);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  // Merges a batch of lines (e.g. a guest cart at login) into the user's cart in one transaction
+  @PostMapping("/{userId}/bulk")
+  public Map<String, Integer> addAll(@PathVariable Long userId, @RequestBody List<CartItem> items) {
+    try {
+      return Map.of("lines", carts.addAll(userId, items));
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
     }
-    return repo.save(ci);
   }
 
   @PutMapping("/{id}")
   public int update(@PathVariable Long id, @RequestParam int qty) {
-    return repo.updateQuantityById(id, qty);
+    return carts.updateQuantity(id, qty);
   }
 
   @DeleteMapping("/{userId}/{productId}")
   public void remove(@PathVariable Long userId, @PathVariable Long productId) {
-    repo.deleteByUserIdAndProductId(userId, productId);
+    carts.remove(userId, productId);
   }
 }
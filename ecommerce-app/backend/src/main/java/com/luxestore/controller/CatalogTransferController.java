@@ -0,0 +1,66 @@
+package com.luxestore.controller;
+
+import com.luxestore.service.ProductTransferService;
+import com.luxestore.service.ProductTransferService.Format;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk catalog transfer. Both directions stream: the import reads the request body row by
+ * row and writes NDJSON progress back while it runs, and the export writes rows as they
+ * come off the database cursor.
+ */
+@RestController
+@RequestMapping("/api/admin/products")
+@CrossOrigin(origins = "http://localhost:3000")
+public class CatalogTransferController {
+
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+  private final ProductTransferService transfer;
+
+  public CatalogTransferController(ProductTransferService transfer) {
+    this.transfer = transfer;
+  }
+
+  // Body is text/csv with a header row, or application/x-ndjson with one product object per line
+  @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+  public void importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body,
+                             HttpServletResponse response) throws IOException {
+    Format format = MediaType.parseMediaType(contentType).isCompatibleWith(CSV) ? Format.CSV : Format.NDJSON;
+    response.setContentType(NDJSON.toString());
+    response.setCharacterEncoding("UTF-8");
+    try {
+      transfer.importProducts(body, format, response.getOutputStream());
+    } catch (IllegalArgumentException e) {
+      // Only thrown for a bad header, before any progress was written
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "csv") String format) {
+    Format f;
+    try {
+      f = Format.valueOf(format.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+    }
+    return ResponseEntity.ok()
+        .contentType(f == Format.CSV ? CSV : NDJSON)
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + f.name().toLowerCase() + "\"")
+        .body(out -> transfer.export(f, out));
+  }
+}
@@ -0,0 +1,41 @@
+package com.luxestore.controller;
+
+import com.luxestore.service.StockReservationService;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Switches a SKU in and out of flash-sale mode, where stock is taken from a striped
+ * in-memory counter before the database row. Operator-only, like the rest of
+ * {@code /api/admin/**}.
+ */
+@RestController
+@RequestMapping("/api/admin/products")
+@CrossOrigin(origins = "http://localhost:3000")
+public class FlashSaleController {
+
+  private final StockReservationService stock;
+
+  public FlashSaleController(StockReservationService stock) {
+    this.stock = stock;
+  }
+
+  @PutMapping("/{id}/flash-sale")
+  public Map<String, Integer> enable(@PathVariable Long id) {
+    try {
+      return Map.of("quantity", stock.enableFlashSale(id));
+    } catch (NoSuchElementException e) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+  }
+
+  @DeleteMapping("/{id}/flash-sale")
+  public void disable(@PathVariable Long id) {
+    stock.disableFlashSale(id);
+  }
+}
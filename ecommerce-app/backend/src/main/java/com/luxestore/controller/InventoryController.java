@@ -0,0 +1,48 @@
+package com.luxestore.controller;
+
+import com.luxestore.dto.StockLevel;
+import com.luxestore.inventory.InventoryIndex;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products/inventory")
+@CrossOrigin(origins = "http://localhost:3000")
+public class InventoryController {
+  // Upper bound on ids per lookup, e.g. every line of a large cart
+  private static final int MAX_IDS = 1000;
+
+  private final InventoryIndex index;
+
+  public InventoryController(InventoryIndex index) {
+    this.index = index;
+  }
+
+  // Price and stock for ?ids=1,2,3 without touching the database; unknown and non-positive ids are left out
+  @GetMapping
+  public List<StockLevel> byIds(@RequestParam List<Long> ids) {
+    if (ids.size() > MAX_IDS) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_IDS + " ids per request");
+    }
+    List<StockLevel> levels = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      if (id != null && id > 0) index.visit(id, (pid, price, quantity) -> levels.add(new StockLevel(pid, price, quantity)));
+    }
+    return levels;
+  }
+
+  @GetMapping("/category/{category}")
+  public List<StockLevel> byCategory(@PathVariable String category,
+                                     @RequestParam(defaultValue = "false") boolean inStockOnly) {
+    List<StockLevel> levels = new ArrayList<>();
+    index.forEachInCategory(category, (id, price, quantity) -> {
+      if (!inStockOnly || quantity > 0) levels.add(new StockLevel(id, price, quantity));
+    });
+    return levels;
+  }
+}
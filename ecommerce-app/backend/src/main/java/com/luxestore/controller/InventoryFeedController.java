@@ -0,0 +1,34 @@
+package com.luxestore.controller;
+
+import com.luxestore.feed.InventoryFeed;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/products")
+@CrossOrigin(origins = "http://localhost:3000")
+public class InventoryFeedController {
+  private final InventoryFeed feed;
+
+  public InventoryFeedController(InventoryFeed feed) {
+    this.feed = feed;
+  }
+
+  // Server-Sent Events: "inventory" carries a JSON array of changed products, "reset" means
+  // updates were dropped and the catalog should be re-read. Filter with ?category=..&productId=..
+  @GetMapping(path = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter feed(@RequestParam(name = "category", required = false) Set<String> categories,
+                         @RequestParam(name = "productId", required = false) Set<Long> productIds) {
+    try {
+      return feed.subscribe(categories == null ? Set.of() : categories, productIds == null ? Set.of() : productIds);
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+    }
+  }
+}
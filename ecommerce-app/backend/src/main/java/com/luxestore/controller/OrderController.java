@@ -1,26 +1,107 @@
 package com.luxestore.controller;
 
+import com.luxestore.analytics.SalesAnalyticsService;
+import com.luxestore.dto.CategorySales;
+import com.luxestore.dto.OrderPage;
+import com.luxestore.dto.OrderQuery;
+import com.luxestore.dto.OrderView;
+import com.luxestore.dto.ProductSales;
 import com.luxestore.model.OrderEntity;
-import com.luxestore.repository.OrderRepository;
+import com.luxestore.service.CheckoutService;
+import com.luxestore.service.OrderService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.Date;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.Instant;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/orders")
 @CrossOrigin(origins = "http://localhost:3000")
 public class OrderController {
-  private final OrderRepository repo;
-  public OrderController(OrderRepository repo) { this.repo = repo; }
+  private final OrderService orders;
+  private final CheckoutService checkout;
+  private final SalesAnalyticsService analytics;
+
+  public OrderController(OrderService orders, CheckoutService checkout, SalesAnalyticsService analytics) {
+    this.orders = orders;
+    this.checkout = checkout;
+    this.analytics = analytics;
+  }
 
   @PostMapping
   public OrderEntity place(@RequestBody OrderEntity order) {
-    order.setOrderDate(new Date());
-    return repo.save(order);
+    try {
+      return orders.place(order);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  // Places an order from the user's server-side cart: prices, stock and cart cleanup in one transaction
+  @PostMapping("/checkout/{userId}")
+  public OrderEntity checkout(@PathVariable Long userId) {
+    try {
+      return checkout.checkout(userId);
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    } catch (NoSuchElementException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+    }
   }
 
   @GetMapping("/{userId}")
-  public List<OrderEntity> byUser(@PathVariable Long userId) {
-    return repo.findByUserId(userId);
+  public List<OrderView> byUser(@PathVariable Long userId) {
+    return orders.history(userId);
+  }
+
+  // Keyset-paginated history, newest first, optionally limited to orderDate in [from, to);
+  // pass the returned nextCursor to fetch the following page
+  @GetMapping("/{userId}/page")
+  public OrderPage page(@PathVariable Long userId,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                        @RequestParam(defaultValue = "" + OrderQuery.DEFAULT_LIMIT) int limit,
+                        @RequestParam(required = false) String cursor) {
+    try {
+      OrderQuery q = new OrderQuery();
+      q.setUserId(userId);
+      q.setFrom(from);
+      q.setTo(to);
+      q.setLimit(limit);
+      q.setCursor(cursor);
+      return orders.page(q);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  @GetMapping("/{userId}/{orderId}")
+  public OrderView one(@PathVariable Long userId, @PathVariable Long orderId) {
+    return orders.find(userId, orderId)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+  }
+
+  // Newline-delimited JSON, one order per line, written as rows are read
+  @GetMapping("/{userId}/stream")
+  public ResponseEntity<StreamingResponseBody> streamByUser(@PathVariable Long userId) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType("application/x-ndjson"))
+        .body(out -> orders.streamHistory(userId, out));
+  }
+
+  @GetMapping("/analytics/products")
+  public List<ProductSales> topProducts(@RequestParam(defaultValue = "10") int limit) {
+    return analytics.topProducts(limit);
+  }
+
+  @GetMapping("/analytics/categories")
+  public List<CategorySales> categoryTotals() {
+    return analytics.categoryTotals();
   }
 }
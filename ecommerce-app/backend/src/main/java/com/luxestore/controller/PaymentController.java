@@ -1,46 +1,69 @@
 package com.luxestore.controller;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
-import com.stripe.Stripe;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
-
-import org.springframework.beans.factory.annotation.Value;
+import com.luxestore.payment.PaymentIntentResult;
+import com.luxestore.service.PaymentService;
 
 
+/**
+ * Payment intents are created asynchronously through the guarded gateway, so a slow provider
+ * does not hold request threads, and an outage answers 503/504 quickly.
+ */
 @RestController
 @RequestMapping("/api/payment")
 public class PaymentController {
 
-//    @Value("${stripe.api.key}")
-//    private String stripeApiKey;
-//Hello just checking if git is working or not.
-    @PostMapping("/create-payment-intent")
-    public Map<String, Object> createPaymentIntent(@RequestBody Map<String, Object> request) throws Exception {
-        //Stripe.apiKey = "dummyKey";
-
-        long amount = Long.parseLong(request.get("amount").toString()); // in cents
-
-        PaymentIntentCreateParams params =
-            PaymentIntentCreateParams.builder()
-                .setAmount(amount) // e.g. 5000 = $50.00
-                .setCurrency("usd")
-                .addPaymentMethodType("card")
-                .build();
+    private final PaymentService payments;
 
-        PaymentIntent intent = PaymentIntent.create(params);
+    public PaymentController(PaymentService payments) {
+        this.payments = payments;
+    }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("clientSecret", intent.getClientSecret());
+    /**
+     * With {@code userId} the amount and idempotency key come from the server-side cart; with
+     * {@code orderId} from the order. A bare {@code amount} (in cents) is still accepted for
+     * older clients and is idempotent only if they send an {@code Idempotency-Key} header.
+     */
+    @PostMapping("/create-payment-intent")
+    public CompletableFuture<Map<String, Object>> createPaymentIntent(
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        CompletableFuture<PaymentIntentResult> intent;
+        try {
+            if (request.get("userId") != null) {
+                intent = payments.forCart(Long.valueOf(request.get("userId").toString()));
+            } else if (request.get("orderId") != null) {
+                intent = payments.forOrder(Long.valueOf(request.get("orderId").toString()));
+            } else if (request.get("amount") != null) {
+                intent = payments.forAmount(Long.parseLong(request.get("amount").toString()), idempotencyKey);
+            } else {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userId, orderId or amount is required");
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        return intent
+            .thenApply(pi -> Map.<String, Object>of("clientSecret", pi.clientSecret(), "paymentIntentId", pi.id()))
+            .exceptionally(PaymentController::rethrow);
+    }
 
-        return response;
+    private static <T> T rethrow(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof RuntimeException re) throw re;
+        throw new CompletionException(cause);
     }
 }
-
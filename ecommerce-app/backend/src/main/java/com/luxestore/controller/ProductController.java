@@ -1,25 +1,162 @@
 package com.luxestore.controller;
 
+import com.luxestore.cache.CacheStats;
+import com.luxestore.dto.ProductPage;
+import com.luxestore.dto.ProductQuery;
+import com.luxestore.dto.ProductSummary;
+import com.luxestore.dto.ProductSort;
+import com.luxestore.dto.StockReservation;
 import com.luxestore.model.Product;
 import com.luxestore.repository.ProductRepository;
+import com.luxestore.search.ProductSearchIndex;
+import com.luxestore.service.ProductCatalogService;
+import com.luxestore.service.StockReservationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import java.time.Duration;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "http://localhost:3000")
 public class ProductController {
   private final ProductRepository repo;
-  public ProductController(ProductRepository repo) { this.repo = repo; }
+  private final ProductCatalogService catalog;
+  private final StockReservationService stock;
+  private final ProductSearchIndex search;
+  private final CacheControl catalogCacheControl;
+
+  public ProductController(ProductRepository repo, ProductCatalogService catalog, StockReservationService stock,
+                           ProductSearchIndex search,
+                           @Value("${catalog.http.max-age:30s}") Duration maxAge,
+                           @Value("${catalog.http.stale-while-revalidate:60s}") Duration staleWhileRevalidate) {
+    this.repo = repo;
+    this.catalog = catalog;
+    this.stock = stock;
+    this.search = search;
+    this.catalogCacheControl = CacheControl.maxAge(maxAge).cachePublic().staleWhileRevalidate(staleWhileRevalidate);
+  }
 
   @GetMapping
-  public List<Product> all() { return repo.findAll(); }
+  public ResponseEntity<List<Product>> all() {
+    return revalidatable(catalog::findAll);
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<Product> get(@PathVariable Long id) {
+    return revalidatable(() -> catalog.findById(id)
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found")));
+  }
+
+  @GetMapping("/category/{category}")
+  public ResponseEntity<List<Product>> byCategory(@PathVariable String category) {
+    return revalidatable(() -> catalog.findByCategory(category));
+  }
+
+  // Tags catalog reads with the catalog revision so If-None-Match gets a 304 without the body
+  // being serialized. The tag is weak because Tomcat will not gzip a response carrying a strong
+  // one; a revision identifies the content, not the bytes, so weak is the honest kind anyway.
+  private <T> ResponseEntity<T> revalidatable(Supplier<T> body) {
+    ProductCatalogService.Revision revision = catalog.revision();
+    return ResponseEntity.ok()
+        .eTag("W/\"" + revision.tag() + "\"")
+        .lastModified(revision.lastModified())
+        .cacheControl(catalogCacheControl)
+        .body(body.get());
+  }
+
+  @GetMapping("/cache/stats")
+  public List<CacheStats> cacheStats() {
+    return catalog.stats();
+  }
+
+  // Keyset-paginated catalog listing; pass the returned nextCursor to fetch the following page
+  @GetMapping("/page")
+  public ProductPage page(@RequestParam(required = false) String category,
+                          @RequestParam(required = false) Double minPrice,
+                          @RequestParam(required = false) Double maxPrice,
+                          @RequestParam(required = false) Boolean inStock,
+                          @RequestParam(defaultValue = "id") String sort,
+                          @RequestParam(defaultValue = "asc") String direction,
+                          @RequestParam(defaultValue = "" + ProductQuery.DEFAULT_LIMIT) int limit,
+                          @RequestParam(required = false) String cursor) {
+    try {
+      ProductQuery q = new ProductQuery();
+      q.setCategory(category);
+      q.setMinPrice(minPrice);
+      q.setMaxPrice(maxPrice);
+      q.setInStock(inStock);
+      q.setSort(ProductSort.valueOf(sort.toUpperCase()));
+      q.setDescending("desc".equalsIgnoreCase(direction));
+      q.setLimit(limit);
+      q.setCursor(cursor);
+      return repo.findPage(q);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  // Full-text search over name and category, best match first; the last word matches as a prefix
+  @GetMapping("/search")
+  public List<ProductSummary> search(@RequestParam("q") String query,
+                                     @RequestParam(required = false) String category,
+                                     @RequestParam(required = false) Boolean inStock,
+                                     @RequestParam(defaultValue = "20") int limit) {
+    return search.search(query, category, inStock, limit);
+  }
+
+  // Typeahead completions for the word being typed
+  @GetMapping("/suggest")
+  public List<String> suggest(@RequestParam("q") String query, @RequestParam(defaultValue = "8") int limit) {
+    return search.suggest(query, limit);
+  }
 
   @PutMapping("/{id}/decrease")
   public Product decrease(@PathVariable Long id, @RequestParam int qty) {
-    Product p = repo.findById(id).orElseThrow();
-    if (p.getQuantity() < qty) throw new RuntimeException("Not enough stock");
-    p.setQuantity(p.getQuantity() - qty);
-    return repo.save(p);
+    try {
+      return stock.decrement(id, qty);
+    } catch (NoSuchElementException e) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  // Holds stock for a pending checkout; it returns to the shelf unless committed before the TTL.
+  // The reservation endpoints need a signed-in user, see SecurityConfig.
+  @PostMapping("/{id}/reservations")
+  public StockReservation reserve(@PathVariable Long id, @RequestParam int qty,
+                                  @RequestParam(required = false) Long ttlSeconds) {
+    try {
+      return stock.reserve(id, qty, ttlSeconds == null ? null : Duration.ofSeconds(ttlSeconds));
+    } catch (NoSuchElementException e) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  @PostMapping("/reservations/{reservationId}/commit")
+  public StockReservation commitReservation(@PathVariable String reservationId) {
+    try {
+      return stock.commit(reservationId);
+    } catch (NoSuchElementException e) {
+      throw new ResponseStatusException(HttpStatus.GONE, e.getMessage());
+    }
+  }
+
+  @DeleteMapping("/reservations/{reservationId}")
+  public StockReservation releaseReservation(@PathVariable String reservationId) {
+    try {
+      return stock.release(reservationId);
+    } catch (NoSuchElementException e) {
+      throw new ResponseStatusException(HttpStatus.GONE, e.getMessage());
+    }
   }
 }
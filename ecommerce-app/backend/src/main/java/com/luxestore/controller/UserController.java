@@ -2,6 +2,7 @@ package com.luxestore.controller;
 
 import com.luxestore.model.User;
 import com.luxestore.repository.UserRepository;
+import com.luxestore.service.CustomUserDetailsService;
 import org.springframework.web.bind.annotation.*;
 import java.util.Optional;
 
@@ -10,11 +11,17 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:3000")
 public class UserController {
   private final UserRepository repo;
-  public UserController(UserRepository repo) { this.repo = repo; }
+  private final CustomUserDetailsService userDetails;
+  public UserController(UserRepository repo, CustomUserDetailsService userDetails) {
+    this.repo = repo;
+    this.userDetails = userDetails;
+  }
 
   @PostMapping("/signup")
   public User signup(@RequestBody User user) {
-    return repo.save(user);
+    User saved = repo.save(user);
+    userDetails.evict(saved.getEmail());
+    return saved;
   }
 
   @PostMapping("/login")
@@ -30,7 +37,9 @@ public class UserController {
     user.setName(u.getName());
     user.setAddress(u.getAddress());
     user.setPhone(u.getPhone());
-    return repo.save(user);
+    User saved = repo.save(user);
+    userDetails.evict(saved.getEmail());
+    return saved;
   }
 
   @GetMapping("/{id}")
@@ -1,37 +1,81 @@
 package com.luxestore.controller;
 
 import com.luxestore.model.WishlistItem;
-import com.luxestore.repository.WishlistRepository;
+import com.luxestore.service.WishlistService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/wishlist")
 @CrossOrigin(origins = "http://localhost:3000")
 public class WishlistController {
-	private final WishlistRepository repo;
+	// Upper bound on ids per membership lookup; a product grid page is well under this
+	private static final int MAX_BATCH = 500;
+
+	private final WishlistService wishlist;
 
-	public WishlistController(WishlistRepository repo) {
-		this.repo = repo;
+	public WishlistController(WishlistService wishlist) {
+		this.wishlist = wishlist;
 	}
 
+	// Private and always revalidated; the ETag is a digest of the items, so a 304 skips the body
 	@GetMapping("/{userId}")
-	public List<WishlistItem> get(@PathVariable Long userId) {
-		return repo.findByUserId(userId);
+	public ResponseEntity<List<WishlistItem>> get(@PathVariable Long userId) {
+		List<WishlistItem> items = wishlist.findByUserId(userId);
+		return ResponseEntity.ok()
+				.eTag(etag(items))
+				.cacheControl(CacheControl.noCache().cachePrivate())
+				.body(items);
 	}
 
+	// Idempotent: adding a product that is already wishlisted returns the existing item
 	@PostMapping
 	public WishlistItem add(@RequestBody WishlistItem item) {
-		return repo.save(item);
+		try {
+			return wishlist.add(item);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
 	}
 
 	@DeleteMapping("/{userId}/{productId}")
 	public void remove(@PathVariable Long userId, @PathVariable Long productId) {
-		repo.deleteByUserIdAndProductId(userId, productId);
+		wishlist.remove(userId, productId);
 	}
 
 	@GetMapping("/exists/{userId}/{productId}")
 	public boolean exists(@PathVariable Long userId, @PathVariable Long productId) {
-		return repo.findByUserIdAndProductId(userId, productId).isPresent();
+		return wishlist.contains(userId, productId);
+	}
+
+	// Which of the given products are wishlisted, e.g. ?productIds=3,7,12 for a whole grid at once
+	@GetMapping("/{userId}/exists")
+	public List<Long> existing(@PathVariable Long userId, @RequestParam List<Long> productIds) {
+		if (productIds.size() > MAX_BATCH) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BATCH + " productIds per request");
+		}
+		return wishlist.containing(userId, productIds);
+	}
+
+	// Weak for the same reason as the catalog's: Tomcat only compresses weakly tagged responses
+	private static String etag(List<WishlistItem> items) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (WishlistItem item : items) {
+				digest.update((item.getId() + "|" + item.getProductId() + "\n").getBytes(StandardCharsets.UTF_8));
+			}
+			return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 }
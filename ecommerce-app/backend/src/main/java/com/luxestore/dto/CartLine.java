@@ -0,0 +1,8 @@
+package com.luxestore.dto;
+
+/**
+ * Cart line priced from the live catalog. {@code available} is false when the product is
+ * gone or has fewer units than the line asks for.
+ */
+public record CartLine(Long id, Long productId, String name, String category, String image, double price,
+                       int quantity, boolean available, double lineTotal) {}
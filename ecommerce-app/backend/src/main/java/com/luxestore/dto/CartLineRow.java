@@ -0,0 +1,8 @@
+package com.luxestore.dto;
+
+/**
+ * Raw cart line joined to its product. Product columns are null when the product has been
+ * deleted since it was added to the cart.
+ */
+public record CartLineRow(Long id, Long productId, int quantity, String name, String category, String image,
+                          Double price, Integer stock) {}
@@ -0,0 +1,8 @@
+package com.luxestore.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+public record CartView(Long userId, List<CartLine> lines, int itemCount, double total, boolean allAvailable,
+                       @JsonIgnore String etag) {}
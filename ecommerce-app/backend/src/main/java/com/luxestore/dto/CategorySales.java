@@ -0,0 +1,3 @@
+package com.luxestore.dto;
+
+public record CategorySales(String category, long units, double revenue) {}
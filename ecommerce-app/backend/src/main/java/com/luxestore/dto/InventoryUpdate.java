@@ -0,0 +1,12 @@
+package com.luxestore.dto;
+
+/**
+ * A product's stock and price as of a committed change, pushed on the inventory feed.
+ * For a removed product only {@code id} is set.
+ */
+public record InventoryUpdate(Long id, String category, Double price, Integer quantity, boolean removed) {
+
+  public static InventoryUpdate removed(Long id) {
+    return new InventoryUpdate(id, null, null, null, true);
+  }
+}
@@ -0,0 +1,8 @@
+package com.luxestore.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Order line as exposed to clients; field names match the legacy itemsJson entries.
+ */
+public record OrderLineView(@JsonIgnore Long orderId, Long productId, String name, int quantity, double price) {}
@@ -0,0 +1,8 @@
+package com.luxestore.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of a user's order history. {@code nextCursor} is null on the last page.
+ */
+public record OrderPage(List<OrderSummary> items, String nextCursor) {}
@@ -0,0 +1,64 @@
+package com.luxestore.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Date range and keyset position for one page of a user's order history, newest first.
+ */
+public class OrderQuery {
+
+  public static final int DEFAULT_LIMIT = 20;
+  public static final int MAX_LIMIT = 100;
+
+  private Long userId;
+  private Instant from;
+  private Instant to;
+  private int limit = DEFAULT_LIMIT;
+
+  // Keyset position decoded from the cursor: order date and id of the last order on the previous page
+  private Instant afterDate;
+  private Long afterId;
+
+  public Long getUserId() { return userId; }
+  public void setUserId(Long userId) { this.userId = userId; }
+  public Instant getFrom() { return from; }
+  public void setFrom(Instant from) { this.from = from; }
+  public Instant getTo() { return to; }
+  public void setTo(Instant to) { this.to = to; }
+  public int getLimit() { return limit; }
+  public void setLimit(int limit) { this.limit = Math.max(1, Math.min(limit, MAX_LIMIT)); }
+  public Instant getAfterDate() { return afterDate; }
+  public Long getAfterId() { return afterId; }
+
+  public boolean hasCursor() { return afterId != null; }
+
+  /**
+   * Cursor format is {@code orderDate|id}, base64url encoded, with the date as an ISO
+   * instant so sub-millisecond timestamps survive the round trip.
+   */
+  public static String encodeCursor(Instant orderDate, Long id) {
+    String raw = orderDate + "|" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public void setCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      afterDate = null;
+      afterId = null;
+      return;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int sep = raw.indexOf('|');
+      if (sep < 0) throw new IllegalArgumentException("Malformed cursor");
+      afterDate = Instant.parse(raw.substring(0, sep));
+      afterId = Long.valueOf(raw.substring(sep + 1));
+    } catch (DateTimeParseException | IllegalArgumentException e) {
+      // NumberFormatException is an IllegalArgumentException too
+      throw new IllegalArgumentException("Malformed cursor", e);
+    }
+  }
+}
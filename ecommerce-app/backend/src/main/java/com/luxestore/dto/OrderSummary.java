@@ -0,0 +1,8 @@
+package com.luxestore.dto;
+
+import java.util.Date;
+
+/**
+ * Order header without the legacy {@code itemsJson} LOB.
+ */
+public record OrderSummary(Long id, Long userId, Date orderDate, double total) {}
@@ -0,0 +1,11 @@
+package com.luxestore.dto;
+
+import java.util.Date;
+import java.util.List;
+
+public record OrderView(Long id, Long userId, Date orderDate, double total, List<OrderLineView> items) {
+
+  public static OrderView of(OrderSummary s, List<OrderLineView> items) {
+    return new OrderView(s.id(), s.userId(), s.orderDate(), s.total(), items);
+  }
+}
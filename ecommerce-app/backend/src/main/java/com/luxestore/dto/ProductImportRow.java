@@ -0,0 +1,7 @@
+package com.luxestore.dto;
+
+/**
+ * One product in a bulk import. Rows with an id update that product; rows without one
+ * create a new product.
+ */
+public record ProductImportRow(Long id, String name, String category, Double price, Integer quantity, String image) {}
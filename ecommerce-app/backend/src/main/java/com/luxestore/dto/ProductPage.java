@@ -0,0 +1,8 @@
+package com.luxestore.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of the catalog. {@code nextCursor} is null on the last page.
+ */
+public record ProductPage(List<ProductSummary> items, String nextCursor) {}
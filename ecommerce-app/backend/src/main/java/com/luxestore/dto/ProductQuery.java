@@ -0,0 +1,80 @@
+package com.luxestore.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Filter, sort and keyset position for a catalog page request.
+ */
+public class ProductQuery {
+
+  public static final int DEFAULT_LIMIT = 24;
+  public static final int MAX_LIMIT = 100;
+
+  private String category;
+  private Double minPrice;
+  private Double maxPrice;
+  private Boolean inStock;
+  private ProductSort sort = ProductSort.ID;
+  private boolean descending;
+  private int limit = DEFAULT_LIMIT;
+
+  // Keyset position decoded from the cursor: last sort value and id of the previous page.
+  // A null value means the previous page ended among rows whose sort key is null.
+  private String afterValue;
+  private Long afterId;
+
+  public String getCategory() { return category; }
+  public void setCategory(String category) { this.category = category; }
+  public Double getMinPrice() { return minPrice; }
+  public void setMinPrice(Double minPrice) { this.minPrice = minPrice; }
+  public Double getMaxPrice() { return maxPrice; }
+  public void setMaxPrice(Double maxPrice) { this.maxPrice = maxPrice; }
+  public Boolean getInStock() { return inStock; }
+  public void setInStock(Boolean inStock) { this.inStock = inStock; }
+  public ProductSort getSort() { return sort; }
+  public void setSort(ProductSort sort) { this.sort = sort == null ? ProductSort.ID : sort; }
+  public boolean isDescending() { return descending; }
+  public void setDescending(boolean descending) { this.descending = descending; }
+  public int getLimit() { return limit; }
+  public void setLimit(int limit) { this.limit = Math.max(1, Math.min(limit, MAX_LIMIT)); }
+  public String getAfterValue() { return afterValue; }
+  public Long getAfterId() { return afterId; }
+
+  public boolean hasCursor() { return afterId != null; }
+
+  /**
+   * Cursor format is {@code sort|value|id}, or {@code sort|id} when the value is null,
+   * base64url encoded. The sort key is part of the cursor so a cursor from one ordering cannot
+   * be replayed against another.
+   */
+  public static String encodeCursor(ProductSort sort, Object value, Long id) {
+    String raw = value == null ? sort.name() + "|" + id : sort.name() + "|" + value + "|" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public void setCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      afterValue = null;
+      afterId = null;
+      return;
+    }
+    String raw;
+    try {
+      raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Malformed cursor", e);
+    }
+    int first = raw.indexOf('|');
+    int last = raw.lastIndexOf('|');
+    if (first < 0 || !raw.substring(0, first).equals(sort.name())) {
+      throw new IllegalArgumentException("Cursor does not match sort " + sort);
+    }
+    afterValue = last == first ? null : raw.substring(first + 1, last);
+    try {
+      afterId = Long.valueOf(raw.substring(last + 1));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Malformed cursor", e);
+    }
+  }
+}
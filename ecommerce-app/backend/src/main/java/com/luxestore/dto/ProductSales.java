@@ -0,0 +1,3 @@
+package com.luxestore.dto;
+
+public record ProductSales(Long productId, String name, long units, double revenue) {}
@@ -0,0 +1,9 @@
+package com.luxestore.dto;
+
+/**
+ * Sort keys supported by the catalog page query. Every key is paired with the product id
+ * as a tie-breaker so the keyset stays unique.
+ */
+public enum ProductSort {
+  ID, PRICE, NAME
+}
@@ -0,0 +1,13 @@
+package com.luxestore.dto;
+
+/**
+ * List-view projection of a product. Selected directly by the catalog query so the
+ * page payload carries an availability flag instead of the raw stock count.
+ */
+public record ProductSummary(Long id, String name, String category, double price, String image, boolean inStock) {
+
+  // Used by the criteria constructor projection, which selects the raw quantity column
+  public ProductSummary(Long id, String name, String category, double price, String image, int quantity) {
+    this(id, name, category, price, image, quantity > 0);
+  }
+}
@@ -0,0 +1,6 @@
+package com.luxestore.dto;
+
+import java.time.LocalDate;
+
+/** Sales for the day, week (starting Monday) or month beginning at {@code start}. */
+public record RevenueBucket(LocalDate start, long orders, long units, double revenue) {}
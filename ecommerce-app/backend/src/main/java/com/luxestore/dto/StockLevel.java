@@ -0,0 +1,4 @@
+package com.luxestore.dto;
+
+/** Price and stock of one product, served from the in-memory inventory index. */
+public record StockLevel(long id, double price, int quantity) {}
@@ -0,0 +1,9 @@
+package com.luxestore.dto;
+
+import java.time.Instant;
+
+/**
+ * Stock held for a checkout. The units are already taken out of {@code Product.quantity};
+ * committing keeps them gone, releasing or letting the hold expire puts them back.
+ */
+public record StockReservation(String id, Long productId, int quantity, Instant expiresAt) {}
@@ -0,0 +1,14 @@
+package com.luxestore.event;
+
+/**
+ * Published by every code path that writes cart rows. {@code userId} is null when the
+ * write is not scoped to one user. Listeners should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)}, as for
+ * {@link ProductChangedEvent}.
+ */
+public record CartChangedEvent(Long userId) {
+
+  public static CartChangedEvent anyUser() {
+    return new CartChangedEvent(null);
+  }
+}
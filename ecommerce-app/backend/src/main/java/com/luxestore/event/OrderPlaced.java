@@ -0,0 +1,22 @@
+package com.luxestore.event;
+
+import com.luxestore.model.OrderEntity;
+import com.luxestore.model.OrderLine;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Outbox payload for a placed order, with its lines as they were priced at order time. */
+public record OrderPlaced(Long orderId, Long userId, Instant orderedAt, double total, List<Line> lines) {
+
+  public static final String TYPE = "order.placed";
+
+  public record Line(Long productId, String productName, String category, int quantity, double unitPrice) {}
+
+  public static OrderPlaced of(OrderEntity order, List<OrderLine> lines) {
+    return new OrderPlaced(order.getId(), order.getUserId(), order.getOrderDate().toInstant(), order.getTotal(),
+        lines.stream()
+            .map(l -> new Line(l.getProductId(), l.getProductName(), l.getCategory(), l.getQuantity(), l.getUnitPrice()))
+            .toList());
+  }
+}
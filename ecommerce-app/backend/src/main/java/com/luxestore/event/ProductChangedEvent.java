@@ -0,0 +1,37 @@
+package com.luxestore.event;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published by every code path that writes to the product table. Listeners that keep
+ * derived product state (caches, indexes) should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)} so they observe the change
+ * only after it has committed.
+ */
+public record ProductChangedEvent(Set<Long> productIds, Change change) {
+
+  public enum Change {
+    /** Only quantity moved; name, category and price are unchanged. */
+    STOCK,
+    /** Any other column changed, or the product was created. */
+    DETAILS,
+    REMOVED
+  }
+
+  public static ProductChangedEvent stock(Collection<Long> ids) {
+    return new ProductChangedEvent(Set.copyOf(ids), Change.STOCK);
+  }
+
+  public static ProductChangedEvent stock(Long id) {
+    return new ProductChangedEvent(Set.of(id), Change.STOCK);
+  }
+
+  public static ProductChangedEvent details(Collection<Long> ids) {
+    return new ProductChangedEvent(Set.copyOf(ids), Change.DETAILS);
+  }
+
+  public static ProductChangedEvent removed(Collection<Long> ids) {
+    return new ProductChangedEvent(Set.copyOf(ids), Change.REMOVED);
+  }
+}
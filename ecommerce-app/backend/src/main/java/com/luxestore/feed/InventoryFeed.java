@@ -0,0 +1,346 @@
+package com.luxestore.feed;
+
+import com.luxestore.dto.InventoryUpdate;
+import com.luxestore.event.ProductChangedEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes stock and price changes to Server-Sent Events subscribers, so clients can stop
+ * re-polling the catalog.
+ *
+ * <p>Committed {@link ProductChangedEvent}s only mark product ids dirty. Every
+ * {@code inventory.feed.flush-interval} the dirty products are read in one query and fanned
+ * out to each subscriber whose category / product filter matches.
+ *
+ * <p>Each subscriber has its own bounded buffer holding the latest update per product, so a
+ * slow client receives the current value, not every intermediate one. Sends run on a small
+ * sender pool with at most one task queued per subscriber. A buffer that fills up is dropped
+ * in favour of a {@code reset} event, after which the client should re-read the catalog.
+ *
+ * <p>A send blocks while the client's socket is full. One still running after
+ * {@code inventory.feed.send-timeout} gets its subscriber evicted, and the pool gains a thread
+ * in place of the stuck one until that write returns, which Tomcat bounds by
+ * {@code server.tomcat.connection-timeout}. The evicted stream is closed as soon as the write
+ * returns. Stalled clients therefore cannot starve the rest of the sender threads.
+ */
+@Service
+public class InventoryFeed {
+
+  private static final Logger log = LoggerFactory.getLogger(InventoryFeed.class);
+
+  private static final int LOAD_CHUNK = 500;
+
+  private final JdbcTemplate jdbc;
+  private final MeterRegistry meters;
+  private final Duration flushInterval;
+  private final Duration heartbeatInterval;
+  private final Duration timeout;
+  private final long sendTimeoutNanos;
+  private final int bufferSize;
+  private final int maxSubscribers;
+
+  private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicLong sequence = new AtomicLong();
+  // Platform threads: SseEmitter.send writes while holding a monitor, which would pin a virtual thread
+  private final ThreadPoolExecutor senders;
+  private final ScheduledExecutorService ticker =
+      Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("inventory-feed").daemon().factory());
+
+  public InventoryFeed(JdbcTemplate jdbc, MeterRegistry meters,
+                       @Value("${inventory.feed.flush-interval:100ms}") Duration flushInterval,
+                       @Value("${inventory.feed.heartbeat:15s}") Duration heartbeatInterval,
+                       @Value("${inventory.feed.timeout:30m}") Duration timeout,
+                       @Value("${inventory.feed.buffer-size:256}") int bufferSize,
+                       @Value("${inventory.feed.max-subscribers:5000}") int maxSubscribers,
+                       @Value("${inventory.feed.sender-threads:8}") int senderThreads,
+                       @Value("${inventory.feed.send-timeout:5s}") Duration sendTimeout) {
+    this.jdbc = jdbc;
+    this.meters = meters;
+    this.flushInterval = flushInterval;
+    this.heartbeatInterval = heartbeatInterval;
+    this.timeout = timeout;
+    this.sendTimeoutNanos = sendTimeout.toNanos();
+    this.bufferSize = bufferSize;
+    this.maxSubscribers = maxSubscribers;
+    this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), Thread.ofPlatform().name("inventory-feed-sender-", 0).daemon().factory());
+    Gauge.builder("inventory.feed.subscribers", subscribers, Set::size).register(meters);
+  }
+
+  @PostConstruct
+  void start() {
+    long flushMillis = flushInterval.toMillis();
+    long heartbeatMillis = heartbeatInterval.toMillis();
+    ticker.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    ticker.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    long checkMillis = Math.max(100, TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) / 4);
+    ticker.scheduleWithFixedDelay(this::evictStalled, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stop() {
+    ticker.shutdownNow();
+    for (Subscriber s : subscribers) s.emitter.complete();
+    senders.shutdownNow();
+  }
+
+  /**
+   * Opens a feed for the given categories and product ids; with neither, every product. An
+   * update is delivered if it matches either filter.
+   *
+   * @throws IllegalStateException when {@code inventory.feed.max-subscribers} are connected
+   */
+  public SseEmitter subscribe(Set<String> categories, Set<Long> productIds) {
+    if (subscribers.size() >= maxSubscribers) throw new IllegalStateException("Inventory feed is at capacity");
+    SseEmitter emitter = new SseEmitter(timeout.toMillis());
+    Subscriber s = new Subscriber(emitter,
+        categories.stream().map(c -> c.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet()),
+        Set.copyOf(productIds));
+    emitter.onCompletion(() -> subscribers.remove(s));
+    emitter.onTimeout(() -> subscribers.remove(s));
+    emitter.onError(e -> subscribers.remove(s));
+    try {
+      // Flushes the response headers and tells EventSource how soon to reconnect
+      emitter.send(SseEmitter.event().comment("subscribed").reconnectTime(3000));
+    } catch (IOException e) {
+      emitter.completeWithError(e);
+      return emitter;
+    }
+    subscribers.add(s);
+    return emitter;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    if (!subscribers.isEmpty()) dirty.addAll(event.productIds());
+  }
+
+  private void flush() {
+    try {
+      if (dirty.isEmpty()) return;
+      List<Long> ids = new ArrayList<>(dirty.size());
+      for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+        ids.add(it.next());
+        it.remove();
+      }
+      List<InventoryUpdate> updates = load(ids);
+      meters.counter("inventory.feed.changes").increment(updates.size());
+      for (Subscriber s : subscribers) {
+        for (InventoryUpdate u : updates) {
+          if (s.wants(u)) s.offer(u);
+        }
+        s.schedule();
+      }
+    } catch (RuntimeException e) {
+      // An exception would cancel the periodic task; the next tick retries with later changes
+      log.warn("Inventory feed flush failed", e);
+    }
+  }
+
+  private void heartbeat() {
+    for (Subscriber s : subscribers) {
+      s.heartbeat();
+    }
+  }
+
+  private void evictStalled() {
+    try {
+      long now = System.nanoTime();
+      for (Subscriber s : subscribers) {
+        if (!s.evictIfStalled(now)) continue;
+        subscribers.remove(s);
+        meters.counter("inventory.feed.evictions").increment();
+        resizeSenders(1);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Inventory feed stall check failed", e);
+    }
+  }
+
+  // Grows the pool by one per send stuck in a stalled socket, and shrinks it once that send returns
+  private synchronized void resizeSenders(int delta) {
+    int size = senders.getCorePoolSize() + delta;
+    if (delta > 0) {
+      senders.setMaximumPoolSize(size);
+      senders.setCorePoolSize(size);
+    } else {
+      senders.setCorePoolSize(size);
+      senders.setMaximumPoolSize(size);
+    }
+  }
+
+  // Current state of the given products, one query per chunk; ids no longer in the table are removals
+  private List<InventoryUpdate> load(List<Long> ids) {
+    Map<Long, InventoryUpdate> found = new HashMap<>(ids.size() * 2);
+    for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+      List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + LOAD_CHUNK));
+      String sql = "SELECT id, category, price, quantity FROM product WHERE id IN ("
+          + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+      jdbc.query(sql, rs -> {
+        long id = rs.getLong(1);
+        found.put(id, new InventoryUpdate(id, rs.getString(2), rs.getDouble(3), rs.getInt(4), false));
+      }, chunk.toArray());
+    }
+    List<InventoryUpdate> updates = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      InventoryUpdate u = found.get(id);
+      updates.add(u != null ? u : InventoryUpdate.removed(id));
+    }
+    return updates;
+  }
+
+  private final class Subscriber {
+    final SseEmitter emitter;
+    final Set<String> categories;
+    final Set<Long> productIds;
+
+    // Latest update per product; a newer one for the same product replaces the one waiting
+    private final LinkedHashMap<Long, InventoryUpdate> pending = new LinkedHashMap<>();
+    private boolean overflowed;
+    private boolean heartbeatDue;
+    private boolean draining;
+    // Set while a sender thread is inside emitter.send
+    private Thread sender;
+    private long sendStarted;
+    private boolean evicted;
+
+    Subscriber(SseEmitter emitter, Set<String> categories, Set<Long> productIds) {
+      this.emitter = emitter;
+      this.categories = categories;
+      this.productIds = productIds;
+    }
+
+    boolean wants(InventoryUpdate u) {
+      if (categories.isEmpty() && productIds.isEmpty()) return true;
+      if (productIds.contains(u.id())) return true;
+      // A removal carries no category, so category subscribers are told about every one
+      return !categories.isEmpty()
+          && (u.removed() || (u.category() != null && categories.contains(u.category().toLowerCase(Locale.ROOT))));
+    }
+
+    synchronized void offer(InventoryUpdate u) {
+      if (overflowed) return;
+      pending.put(u.id(), u);
+      if (pending.size() > bufferSize) {
+        pending.clear();
+        overflowed = true;
+        meters.counter("inventory.feed.resets").increment();
+      }
+    }
+
+    void heartbeat() {
+      synchronized (this) {
+        heartbeatDue = true;
+      }
+      schedule();
+    }
+
+    void schedule() {
+      synchronized (this) {
+        if (evicted || draining || (pending.isEmpty() && !overflowed && !heartbeatDue)) return;
+        draining = true;
+      }
+      senders.execute(this::drain);
+    }
+
+    private void drain() {
+      while (true) {
+        List<InventoryUpdate> batch;
+        boolean reset;
+        boolean ping;
+        synchronized (this) {
+          if (pending.isEmpty() && !overflowed && !heartbeatDue) {
+            draining = false;
+            return;
+          }
+          batch = List.copyOf(pending.values());
+          pending.clear();
+          reset = overflowed;
+          overflowed = false;
+          ping = heartbeatDue && batch.isEmpty() && !reset;
+          heartbeatDue = false;
+          sender = Thread.currentThread();
+          sendStarted = System.nanoTime();
+        }
+        boolean failed = false;
+        try {
+          if (reset) {
+            emitter.send(SseEmitter.event().id(Long.toString(sequence.incrementAndGet())).name("reset").data("{}"));
+          }
+          if (!batch.isEmpty()) {
+            emitter.send(SseEmitter.event().id(Long.toString(sequence.incrementAndGet())).name("inventory")
+                .data(batch, MediaType.APPLICATION_JSON));
+          }
+          if (ping) emitter.send(SseEmitter.event().comment("ping"));
+        } catch (IOException | IllegalStateException e) {
+          // Client went away (or the emitter completed); the container completes the emitter
+          failed = true;
+        }
+        boolean stalled;
+        synchronized (this) {
+          sender = null;
+          // Drop an interrupt from evictIfStalled so it cannot reach this thread's next task
+          Thread.interrupted();
+          stalled = evicted;
+          if (failed || stalled) {
+            draining = false;
+            pending.clear();
+          }
+        }
+        if (stalled) {
+          resizeSenders(-1);
+          // Done here rather than at eviction: the emitter's lock is held by the stuck send,
+          // so completing it from the ticker would block every flush until the write returned
+          emitter.complete();
+        }
+        if (failed || stalled) {
+          subscribers.remove(this);
+          return;
+        }
+      }
+    }
+
+    // True the first time a send is found running past the deadline
+    synchronized boolean evictIfStalled(long now) {
+      if (evicted || sender == null || now - sendStarted < sendTimeoutNanos) return false;
+      evicted = true;
+      sender.interrupt();
+      return true;
+    }
+  }
+}
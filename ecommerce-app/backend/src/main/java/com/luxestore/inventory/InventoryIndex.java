@@ -0,0 +1,409 @@
+package com.luxestore.inventory;
+
+import com.luxestore.event.ProductChangedEvent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Price, stock and category of every product, kept outside the heap for reads that need
+ * nothing else. Rows are fixed-width records in one direct buffer, found through a
+ * {@link LongIntHashMap} from product id to row; categories are dictionary-encoded and each
+ * category threads a linked list through its rows, so a category scan touches only its own
+ * products. Lookups and scans allocate nothing and the heap footprint does not grow with
+ * the catalog: about 48 bytes per product, all of it off-heap.
+ *
+ * <p>Built from the product table at startup and kept current from
+ * {@link ProductChangedEvent}s after commit. Events only mark ids dirty; one refresher
+ * thread drains them, re-reads those rows and applies them. An id is taken out of the dirty
+ * set before its row is read, so the last read of a product always starts after its last
+ * committed change, and an older read can never be applied over a newer one.
+ */
+@Service
+public class InventoryIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(InventoryIndex.class);
+
+  /** Receives one product of a scan; called with the index read-locked, so keep it short. */
+  @FunctionalInterface
+  public interface Visitor {
+    void visit(long id, double price, int quantity);
+  }
+
+  private static final int LOAD_CHUNK = 500;
+  private static final long IDLE_WAIT_MILLIS = 1000;
+  private static final long RETRY_BACKOFF_MILLIS = 1000;
+
+  private final JdbcTemplate streamingJdbc;
+  private final StampedLock lock = new StampedLock();
+
+  private Store store = new Store(16);
+  // Non-null while a rebuild is reading the table; changes seen meanwhile are replayed after it
+  private volatile Set<Long> changedDuringRebuild;
+
+  // Products to re-read: all columns, or only quantity when nothing but stock moved
+  private final Set<Long> dirtyRows = ConcurrentHashMap.newKeySet();
+  private final Set<Long> dirtyQuantities = ConcurrentHashMap.newKeySet();
+  private final Semaphore wakeUps = new Semaphore(0);
+  private volatile boolean running = true;
+  private final Thread refresher = Thread.ofPlatform().name("inventory-index").daemon().unstarted(this::refreshLoop);
+
+  public InventoryIndex(DataSource dataSource, MeterRegistry meters) {
+    this.streamingJdbc = new JdbcTemplate(dataSource);
+    this.streamingJdbc.setFetchSize(1000);
+    Gauge.builder("inventory.index.products", this, InventoryIndex::size).register(meters);
+    Gauge.builder("inventory.index.off_heap_bytes", this, InventoryIndex::offHeapBytes).register(meters);
+  }
+
+  @PostConstruct
+  void start() {
+    refresher.start();
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    refresher.interrupt();
+    refresher.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long started = System.nanoTime();
+    changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    Integer count = streamingJdbc.queryForObject("SELECT COUNT(*) FROM product", Integer.class);
+    Store built = new Store(count == null ? 16 : count);
+    streamingJdbc.query("SELECT id, category, price, quantity FROM product",
+        rs -> { built.put(rs.getLong(1), rs.getString(2), rs.getDouble(3), rs.getInt(4)); });
+
+    Set<Long> replay;
+    long stamp = lock.writeLock();
+    try {
+      store = built;
+      replay = changedDuringRebuild;
+      changedDuringRebuild = null;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+    if (!replay.isEmpty()) markDirty(replay, false);
+    log.info("Inventory index built: {} products, {} KB off-heap in {} ms", built.size(),
+        built.offHeapBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+  }
+
+  // Removed products are re-read like any other: a row that is gone is dropped from the index
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    Set<Long> pending = changedDuringRebuild;
+    if (pending != null) pending.addAll(event.productIds());
+    markDirty(event.productIds(), event.change() == ProductChangedEvent.Change.STOCK);
+  }
+
+  private void markDirty(Set<Long> ids, boolean quantityOnly) {
+    (quantityOnly ? dirtyQuantities : dirtyRows).addAll(ids);
+    wakeUps.release();
+  }
+
+  private void refreshLoop() {
+    while (running) {
+      Set<Long> rows = Set.of();
+      Set<Long> quantities = Set.of();
+      try {
+        wakeUps.tryAcquire(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        wakeUps.drainPermits();
+        rows = drain(dirtyRows);
+        quantities = drain(dirtyQuantities);
+        // A full re-read covers the quantity as well
+        quantities.removeAll(rows);
+        if (!rows.isEmpty()) refresh(rows, false);
+        if (!quantities.isEmpty()) refresh(quantities, true);
+      } catch (InterruptedException e) {
+        return;
+      } catch (RuntimeException e) {
+        // Nothing else would mark these ids again; retry them after a pause
+        log.warn("Inventory index refresh of {} products failed, retrying", rows.size() + quantities.size(), e);
+        dirtyRows.addAll(rows);
+        dirtyQuantities.addAll(quantities);
+        try {
+          Thread.sleep(RETRY_BACKOFF_MILLIS);
+        } catch (InterruptedException ie) {
+          return;
+        }
+      }
+    }
+  }
+
+  private static Set<Long> drain(Set<Long> dirty) {
+    Set<Long> ids = new HashSet<>();
+    for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+      ids.add(it.next());
+      it.remove();
+    }
+    return ids;
+  }
+
+  public boolean contains(long id) {
+    long stamp = lock.readLock();
+    try {
+      return store.row(id) >= 0;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /** The product's price, or NaN if it is not in the catalog. */
+  public double price(long id) {
+    long stamp = lock.readLock();
+    try {
+      int row = store.row(id);
+      return row < 0 ? Double.NaN : store.price(row);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /** The product's stock, or -1 if it is not in the catalog. */
+  public int quantity(long id) {
+    long stamp = lock.readLock();
+    try {
+      int row = store.row(id);
+      return row < 0 ? -1 : store.quantity(row);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /** Calls {@code visitor} for the given product if it exists; returns whether it did. */
+  public boolean visit(long id, Visitor visitor) {
+    long stamp = lock.readLock();
+    try {
+      int row = store.row(id);
+      if (row < 0) return false;
+      visitor.visit(id, store.price(row), store.quantity(row));
+      return true;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /** Calls {@code visitor} for every product in the category (exact name) and returns how many. */
+  public int forEachInCategory(String category, Visitor visitor) {
+    long stamp = lock.readLock();
+    try {
+      return store.forEachInCategory(category, visitor);
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  public int size() {
+    long stamp = lock.readLock();
+    try {
+      return store.size();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  public long offHeapBytes() {
+    long stamp = lock.readLock();
+    try {
+      return store.offHeapBytes();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  // Re-reads the given products on the refresher thread; a STOCK change only moves quantity,
+  // so only that column is read
+  private void refresh(Set<Long> ids, boolean quantityOnly) {
+    List<Long> all = new ArrayList<>(ids);
+    for (int from = 0; from < all.size(); from += LOAD_CHUNK) {
+      List<Long> chunk = all.subList(from, Math.min(all.size(), from + LOAD_CHUNK));
+      String in = String.join(",", Collections.nCopies(chunk.size(), "?"));
+      Set<Long> missing = new HashSet<>(chunk);
+      if (quantityOnly) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        streamingJdbc.query("SELECT id, quantity FROM product WHERE id IN (" + in + ")",
+            rs -> { quantities.put(rs.getLong(1), rs.getInt(2)); }, chunk.toArray());
+        long stamp = lock.writeLock();
+        try {
+          quantities.forEach((id, q) -> store.setQuantity(id, q));
+        } finally {
+          lock.unlockWrite(stamp);
+        }
+        continue;
+      }
+      List<Object[]> rows = new ArrayList<>();
+      streamingJdbc.query("SELECT id, category, price, quantity FROM product WHERE id IN (" + in + ")",
+          rs -> { rows.add(new Object[] { rs.getLong(1), rs.getString(2), rs.getDouble(3), rs.getInt(4) }); },
+          chunk.toArray());
+      long stamp = lock.writeLock();
+      try {
+        for (Object[] r : rows) {
+          missing.remove((Long) r[0]);
+          store.put((Long) r[0], (String) r[1], (Double) r[2], (Integer) r[3]);
+        }
+        for (Long id : missing) store.remove(id);
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * The index proper; guarded by the enclosing lock. Row layout, 32 bytes:
+   * id (long), price (double), quantity (int), category code (int), next and previous row
+   * in the same category (int, -1 at the ends). Free rows are reused before the buffer grows.
+   */
+  static final class Store {
+    private static final int ROW_BYTES = 32;
+    private static final int ID = 0, PRICE = 8, QUANTITY = 16, CATEGORY = 20, NEXT = 24, PREV = 28;
+
+    private final LongIntHashMap rows;
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+    private int[] heads = new int[16];
+    private ByteBuffer data;
+    private int highWater;
+    private int[] free = new int[16];
+    private int freeCount;
+
+    Store(int expected) {
+      rows = new LongIntHashMap(expected);
+      data = ByteBuffer.allocateDirect(Math.max(16, expected) * ROW_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    int size() {
+      return rows.size();
+    }
+
+    long offHeapBytes() {
+      return data.capacity() + rows.offHeapBytes();
+    }
+
+    int row(long id) {
+      return rows.get(id);
+    }
+
+    double price(int row) {
+      return data.getDouble(row * ROW_BYTES + PRICE);
+    }
+
+    int quantity(int row) {
+      return data.getInt(row * ROW_BYTES + QUANTITY);
+    }
+
+    int forEachInCategory(String category, Visitor visitor) {
+      Integer code = categoryCodes.get(category == null ? "" : category);
+      if (code == null) return 0;
+      int n = 0;
+      for (int row = heads[code]; row >= 0; row = data.getInt(row * ROW_BYTES + NEXT)) {
+        int at = row * ROW_BYTES;
+        visitor.visit(data.getLong(at + ID), data.getDouble(at + PRICE), data.getInt(at + QUANTITY));
+        n++;
+      }
+      return n;
+    }
+
+    void put(long id, String category, double price, int quantity) {
+      int code = codeFor(category == null ? "" : category);
+      int row = rows.get(id);
+      if (row < 0) {
+        row = allocateRow();
+        rows.put(id, row);
+        data.putLong(row * ROW_BYTES + ID, id);
+        link(row, code);
+      } else if (data.getInt(row * ROW_BYTES + CATEGORY) != code) {
+        unlink(row);
+        link(row, code);
+      }
+      data.putDouble(row * ROW_BYTES + PRICE, price);
+      data.putInt(row * ROW_BYTES + QUANTITY, quantity);
+    }
+
+    void setQuantity(long id, int quantity) {
+      int row = rows.get(id);
+      if (row >= 0) data.putInt(row * ROW_BYTES + QUANTITY, quantity);
+    }
+
+    void remove(long id) {
+      int row = rows.remove(id);
+      if (row < 0) return;
+      unlink(row);
+      if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+      free[freeCount++] = row;
+    }
+
+    private int codeFor(String category) {
+      Integer code = categoryCodes.get(category);
+      if (code != null) return code;
+      int c = categoryCodes.size();
+      categoryCodes.put(category, c);
+      if (c == heads.length) heads = Arrays.copyOf(heads, c * 2);
+      heads[c] = -1;
+      return c;
+    }
+
+    private int allocateRow() {
+      if (freeCount > 0) return free[--freeCount];
+      if ((long) (highWater + 1) * ROW_BYTES > data.capacity()) {
+        long grown = Math.min((long) data.capacity() * 2, Integer.MAX_VALUE / ROW_BYTES * ROW_BYTES);
+        if (grown <= data.capacity()) throw new IllegalStateException("Inventory index is full");
+        ByteBuffer next = ByteBuffer.allocateDirect((int) grown).order(ByteOrder.nativeOrder());
+        next.put(data.duplicate().clear());
+        data = next;
+      }
+      return highWater++;
+    }
+
+    // Pushes the row onto the front of its category's list
+    private void link(int row, int code) {
+      int at = row * ROW_BYTES;
+      int head = heads[code];
+      data.putInt(at + CATEGORY, code);
+      data.putInt(at + PREV, -1);
+      data.putInt(at + NEXT, head);
+      if (head >= 0) data.putInt(head * ROW_BYTES + PREV, row);
+      heads[code] = row;
+    }
+
+    private void unlink(int row) {
+      int at = row * ROW_BYTES;
+      int prev = data.getInt(at + PREV);
+      int next = data.getInt(at + NEXT);
+      if (prev >= 0) {
+        data.putInt(prev * ROW_BYTES + NEXT, next);
+      } else {
+        heads[data.getInt(at + CATEGORY)] = next;
+      }
+      if (next >= 0) data.putInt(next * ROW_BYTES + PREV, prev);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.luxestore.inventory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Open-addressing hash map from non-zero long keys to int values, held in two direct
+ * buffers: no boxing, no per-entry objects and nothing on the heap that grows with size.
+ * Linear probing; removal shifts later entries back instead of leaving tombstones, so
+ * lookups never slow down with churn. Not thread-safe.
+ */
+final class LongIntHashMap {
+
+  static final int MISSING = -1;
+  private static final long EMPTY = 0;
+
+  private LongBuffer keys;
+  private IntBuffer values;
+  private int mask;
+  private int size;
+  private int resizeAt;
+
+  LongIntHashMap(int expected) {
+    allocate(capacityFor(expected));
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** Bytes held outside the heap. */
+  long offHeapBytes() {
+    return (long) keys.capacity() * (Long.BYTES + Integer.BYTES);
+  }
+
+  int get(long key) {
+    // Zero marks an empty slot, so it would match the first free one
+    if (key == EMPTY) return MISSING;
+    for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+      long k = keys.get(i);
+      if (k == key) return values.get(i);
+      if (k == EMPTY) return MISSING;
+    }
+  }
+
+  void put(long key, int value) {
+    if (key == EMPTY) throw new IllegalArgumentException("key must be non-zero");
+    int i = slot(key, mask);
+    for (long k; (k = keys.get(i)) != EMPTY; i = (i + 1) & mask) {
+      if (k == key) {
+        values.put(i, value);
+        return;
+      }
+    }
+    keys.put(i, key);
+    values.put(i, value);
+    if (++size > resizeAt) rehash(keys.capacity() * 2);
+  }
+
+  /** Removes the key and returns its value, or {@link #MISSING}. */
+  int remove(long key) {
+    if (key == EMPTY) return MISSING;
+    int i = slot(key, mask);
+    for (long k; (k = keys.get(i)) != key; i = (i + 1) & mask) {
+      if (k == EMPTY) return MISSING;
+    }
+    int removed = values.get(i);
+    // Pull back any following entry that would become unreachable across the new gap
+    for (int j = (i + 1) & mask; keys.get(j) != EMPTY; j = (j + 1) & mask) {
+      int home = slot(keys.get(j), mask);
+      boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+      if (stays) continue;
+      keys.put(i, keys.get(j));
+      values.put(i, values.get(j));
+      i = j;
+    }
+    keys.put(i, EMPTY);
+    size--;
+    return removed;
+  }
+
+  private void rehash(int capacity) {
+    LongBuffer oldKeys = keys;
+    IntBuffer oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.capacity(); i++) {
+      long k = oldKeys.get(i);
+      if (k == EMPTY) continue;
+      int j = slot(k, mask);
+      while (keys.get(j) != EMPTY) j = (j + 1) & mask;
+      keys.put(j, k);
+      values.put(j, oldValues.get(i));
+      size++;
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    values = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    mask = capacity - 1;
+    size = 0;
+    resizeAt = capacity / 4 * 3;
+  }
+
+  // Power of two with room for the expected entries at a 0.75 load factor
+  private static int capacityFor(int expected) {
+    long needed = Math.max(16, (long) expected * 4 / 3 + 1);
+    return (int) Math.min(1L << 30, Long.highestOneBit(needed - 1) << 1);
+  }
+
+  static int slot(long key, int mask) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+}
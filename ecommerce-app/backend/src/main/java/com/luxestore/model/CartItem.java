@@ -3,8 +3,10 @@ package com.luxestore.model;
 import jakarta.persistence.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_cart_item_user_product", columnNames = {"userId", "productId"}))
 public class CartItem {
 
+    // Stays IDENTITY: CartService inserts rows with a native MERGE that relies on the column default
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,20 @@
+package com.luxestore.model;
+
+import jakarta.persistence.*;
+
+/** All-time units and revenue per category, '' for uncategorized lines; see {@link DailySalesRollup}. */
+@Entity
+@Table(name = "category_sales_rollup")
+public class CategorySalesRollup {
+  @Id
+  private String category;
+  private long units;
+  private double revenue;
+
+  // Explicit public no-arg constructor for Hibernate
+  public CategorySalesRollup() {}
+
+  public String getCategory() { return category; }
+  public long getUnits() { return units; }
+  public double getRevenue() { return revenue; }
+}
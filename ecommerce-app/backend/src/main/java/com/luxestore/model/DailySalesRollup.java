@@ -0,0 +1,27 @@
+package com.luxestore.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Orders, units and revenue per calendar day. Maintained by the analytics rollup handler;
+ * mapped only so the dev schema gets the table, the application reads and writes it with SQL.
+ */
+@Entity
+@Table(name = "daily_sales_rollup")
+public class DailySalesRollup {
+  @Id
+  private LocalDate salesDate;
+  private long orderCount;
+  private long units;
+  private double revenue;
+
+  // Explicit public no-arg constructor for Hibernate
+  public DailySalesRollup() {}
+
+  public LocalDate getSalesDate() { return salesDate; }
+  public long getOrderCount() { return orderCount; }
+  public long getUnits() { return units; }
+  public double getRevenue() { return revenue; }
+}
@@ -1,24 +1,33 @@
 package com.luxestore.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.Date;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "orders")
+// Serves order history: equality on user, then newest-first range scans over date and id
+@Table(name = "orders", indexes = @Index(name = "idx_orders_user_date", columnList = "userId, orderDate, id"))
 public class OrderEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     private Long userId;
     private Date orderDate;
     private double total;
     @Lob
     private String itemsJson; // JSON string of items
+    // Set once the order is counted in the sales rollups, so it is never counted twice
+    @JsonIgnore
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean rolledUp;
 
     public OrderEntity(Long userId, Date orderDate, double total, String itemsJson) {
         this.userId = userId;
@@ -0,0 +1,84 @@
+package com.luxestore.model;
+
+import jakarta.persistence.*;
+
+/**
+ * One product line of an order. Name and category are snapshotted at order time so history
+ * and per-category revenue stay correct after the catalog changes.
+ */
+@Entity
+@Table(name = "order_lines", indexes = {
+    @Index(name = "idx_order_lines_order", columnList = "orderId"),
+    @Index(name = "idx_order_lines_product", columnList = "productId"),
+    @Index(name = "idx_order_lines_category", columnList = "category")
+})
+public class OrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_lines_seq")
+    @SequenceGenerator(name = "order_lines_seq", sequenceName = "order_lines_seq", allocationSize = 50)
+    private Long id;
+    @Column(nullable = false)
+    private Long orderId;
+    @Column(nullable = false)
+    private Long productId;
+    private String productName;
+    private String category;
+    private int quantity;
+    private double unitPrice;
+
+    // Explicit public no-arg constructor for Hibernate
+    public OrderLine() {}
+
+    public OrderLine(Long orderId, Long productId, String productName, String category, int quantity, double unitPrice) {
+        this.orderId = orderId;
+        this.productId = productId;
+        this.productName = productName;
+        this.category = category;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+    //getters and setters
+    public Long getId() {
+        return id;
+    }
+    public Long getOrderId() {
+        return orderId;
+    }
+    public Long getProductId() {
+        return productId;
+    }
+    public String getProductName() {
+        return productName;
+    }
+    public String getCategory() {
+        return category;
+    }
+    public int getQuantity() {
+        return quantity;
+    }
+    public double getUnitPrice() {
+        return unitPrice;
+    }
+    public void setId(Long id) {
+        this.id = id;
+    }
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+    public void setUnitPrice(double unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+}
@@ -0,0 +1,66 @@
+package com.luxestore.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A domain event written in the same transaction as the change it describes and delivered
+ * to in-process handlers afterwards by {@link com.luxestore.outbox.OutboxDispatcher}.
+ * Events that share an ordering key are delivered one at a time, in id order.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = {
+    @Index(name = "idx_outbox_event_ready", columnList = "status, availableAt, id"),
+    @Index(name = "idx_outbox_event_key", columnList = "orderingKey, status, id")
+})
+public class OutboxEvent {
+
+  public enum Status { PENDING, DONE, FAILED }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+  @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+  private Long id;
+  @Column(nullable = false, length = 100)
+  private String type;
+  @Column(nullable = false, length = 100)
+  private String orderingKey;
+  @Column(nullable = false, length = 65535)
+  private String payload;
+  @Column(nullable = false)
+  private Instant createdAt;
+  // Not delivered before this; pushed out after each failed attempt
+  @Column(nullable = false)
+  private Instant availableAt;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private Status status;
+  private int attempts;
+  @Column(length = 1000)
+  private String lastError;
+  private Instant processedAt;
+
+  // Explicit public no-arg constructor for Hibernate
+  public OutboxEvent() {}
+
+  public OutboxEvent(String type, String orderingKey, String payload, Instant createdAt) {
+    this.type = type;
+    this.orderingKey = orderingKey;
+    this.payload = payload;
+    this.createdAt = createdAt;
+    this.availableAt = createdAt;
+    this.status = Status.PENDING;
+  }
+
+  public Long getId() { return id; }
+  public String getType() { return type; }
+  public String getOrderingKey() { return orderingKey; }
+  public String getPayload() { return payload; }
+  public Instant getCreatedAt() { return createdAt; }
+  public Instant getAvailableAt() { return availableAt; }
+  public Status getStatus() { return status; }
+  public int getAttempts() { return attempts; }
+  public String getLastError() { return lastError; }
+  public Instant getProcessedAt() { return processedAt; }
+}
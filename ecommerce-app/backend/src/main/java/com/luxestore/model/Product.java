@@ -1,12 +1,24 @@
 package com.luxestore.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Second-level cached when the prod profile enables it. Stock is also changed with plain
+// JDBC, so EntityCacheEviction drops entries on every ProductChangedEvent.
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+    @Index(name = "idx_product_category_price", columnList = "category, price, id"),
+    @Index(name = "idx_product_price", columnList = "price, id"),
+    @Index(name = "idx_product_name", columnList = "name, id")
+})
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String category;
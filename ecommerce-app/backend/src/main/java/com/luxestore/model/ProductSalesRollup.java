@@ -0,0 +1,24 @@
+package com.luxestore.model;
+
+import jakarta.persistence.*;
+
+/** All-time units and revenue per product; see {@link DailySalesRollup}. */
+@Entity
+@Table(name = "product_sales_rollup", indexes = @Index(name = "idx_product_sales_rollup_revenue", columnList = "revenue"))
+public class ProductSalesRollup {
+  @Id
+  private Long productId;
+  private String productName;
+  private long orderCount;
+  private long units;
+  private double revenue;
+
+  // Explicit public no-arg constructor for Hibernate
+  public ProductSalesRollup() {}
+
+  public Long getProductId() { return productId; }
+  public String getProductName() { return productName; }
+  public long getOrderCount() { return orderCount; }
+  public long getUnits() { return units; }
+  public double getRevenue() { return revenue; }
+}
@@ -0,0 +1,31 @@
+package com.luxestore.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A stock hold, written in the same transaction that takes its units out of
+ * {@code product.quantity} so the hold outlives a restart. Mapped only so the dev schema
+ * gets the table; {@link com.luxestore.service.StockReservationService} uses SQL.
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = @Index(name = "idx_stock_reservation_expires", columnList = "expiresAt"))
+public class StockReservationEntity {
+  @Id
+  @Column(length = 36)
+  private String id;
+  @Column(nullable = false)
+  private Long productId;
+  private int quantity;
+  @Column(nullable = false)
+  private Instant expiresAt;
+
+  // Explicit public no-arg constructor for Hibernate
+  public StockReservationEntity() {}
+
+  public String getId() { return id; }
+  public Long getProductId() { return productId; }
+  public int getQuantity() { return quantity; }
+  public Instant getExpiresAt() { return expiresAt; }
+}
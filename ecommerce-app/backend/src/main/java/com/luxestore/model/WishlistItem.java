@@ -3,8 +3,11 @@ package com.luxestore.model;
 import jakarta.persistence.*;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_wishlist_item_user_product", columnNames = {"userId", "productId"}))
 public class WishlistItem {
-  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wishlist_item_seq")
+  @SequenceGenerator(name = "wishlist_item_seq", sequenceName = "wishlist_item_seq", allocationSize = 50)
   private Long id;
   private Long userId;
   private Long productId;
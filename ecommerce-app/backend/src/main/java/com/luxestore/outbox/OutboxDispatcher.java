@@ -0,0 +1,272 @@
+package com.luxestore.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Drains the outbox table to the registered {@link OutboxEventHandler}s on its own thread.
+ *
+ * <p>Each pass reads up to {@code outbox.batch-size} deliverable events in id order, groups
+ * them by ordering key and runs each group sequentially on one of {@code outbox.workers}
+ * threads, so events for one user are handled in order while different users proceed in
+ * parallel. The next batch is read only when the current one has finished: a slow handler
+ * lets the backlog grow in the table, never in memory and never in the checkout path.
+ *
+ * <p>A failed event is retried with exponential backoff up to {@code outbox.max-attempts}
+ * times and then marked FAILED; while it is waiting, later events with the same key are held
+ * back. The dispatcher assumes it is the only one draining this database; disable it with
+ * {@code outbox.enabled=false} on any additional instance.
+ */
+@Component
+public class OutboxDispatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+  // Ready events whose key has no earlier event still waiting out a backoff
+  private static final String READY_SQL =
+      "SELECT e.id, e.type, e.ordering_key, e.payload, e.created_at, e.attempts FROM outbox_event e "
+      + "WHERE e.status = 'PENDING' AND e.available_at <= ? "
+      + "AND NOT EXISTS (SELECT 1 FROM outbox_event p WHERE p.ordering_key = e.ordering_key "
+      + "AND p.status = 'PENDING' AND p.id < e.id AND p.available_at > ?) "
+      + "ORDER BY e.id LIMIT ?";
+  private static final String DONE_SQL = "UPDATE outbox_event SET status = 'DONE', processed_at = ? WHERE id = ?";
+  private static final String RETRY_SQL =
+      "UPDATE outbox_event SET attempts = ?, available_at = ?, last_error = ? WHERE id = ?";
+  private static final String FAILED_SQL =
+      "UPDATE outbox_event SET status = 'FAILED', attempts = ?, processed_at = ?, last_error = ? WHERE id = ?";
+  private static final String PURGE_SQL = "DELETE FROM outbox_event WHERE status = 'DONE' AND processed_at < ?";
+  private static final Duration PURGE_INTERVAL = Duration.ofMinutes(10);
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final ObjectProvider<OutboxEventHandler> handlerProvider;
+  private final MeterRegistry meters;
+  private final boolean enabled;
+  private final int batchSize;
+  private final int workers;
+  private final Duration pollInterval;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final Duration retention;
+
+  private final Semaphore wakeUps = new Semaphore(0);
+  // Held by the loop for each pass, which includes every delivery's commit; see exclusive()
+  private final ReentrantLock passLock = new ReentrantLock();
+  private volatile boolean running;
+  private List<OutboxEventHandler> handlers = List.of();
+  private ExecutorService pool;
+  private Thread loop;
+
+  public OutboxDispatcher(JdbcTemplate jdbc, TransactionTemplate tx, ObjectProvider<OutboxEventHandler> handlerProvider,
+                          MeterRegistry meters,
+                          @Value("${outbox.enabled:true}") boolean enabled,
+                          @Value("${outbox.batch-size:200}") int batchSize,
+                          @Value("${outbox.workers:4}") int workers,
+                          @Value("${outbox.poll-interval:500ms}") Duration pollInterval,
+                          @Value("${outbox.max-attempts:10}") int maxAttempts,
+                          @Value("${outbox.backoff.initial:1s}") Duration initialBackoff,
+                          @Value("${outbox.backoff.max:5m}") Duration maxBackoff,
+                          @Value("${outbox.retention:1d}") Duration retention) {
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.handlerProvider = handlerProvider;
+    this.meters = meters;
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.workers = workers;
+    this.pollInterval = pollInterval;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    this.retention = retention;
+  }
+
+  // Not @Scheduled: a batch waits on handlers, which must not hold up the shared scheduler thread
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) return;
+    // Looked up late so handlers may themselves depend on the publisher
+    handlers = handlerProvider.orderedStream().toList();
+    pool = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("outbox-worker-", 0).daemon().factory());
+    running = true;
+    loop = Thread.ofPlatform().name("outbox-dispatcher").daemon().start(this::run);
+    log.info("Outbox dispatcher started with {} handler(s)", handlers.size());
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    if (loop != null) {
+      loop.interrupt();
+      loop.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    if (pool != null) {
+      pool.shutdown();
+      pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+  }
+
+  /** Whether this instance delivers events, i.e. whether handlers run here at all. */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Runs {@code work} while no event is being delivered: waits for the current pass to
+   * finish, including the commits of its deliveries, and holds the next one back until
+   * {@code work} returns. For maintenance that must not interleave with handlers, such as
+   * recomputing state a handler updates incrementally.
+   */
+  public <T> T exclusive(Supplier<T> work) {
+    passLock.lock();
+    try {
+      return work.get();
+    } finally {
+      passLock.unlock();
+    }
+  }
+
+  /** Cuts the idle wait short once a publishing transaction has committed. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onWritten(OutboxWritten event) {
+    wakeUps.release();
+  }
+
+  private void run() {
+    long nextPurge = System.nanoTime();
+    while (running) {
+      try {
+        int read;
+        passLock.lockInterruptibly();
+        try {
+          read = dispatchBatch();
+        } finally {
+          passLock.unlock();
+        }
+        if (System.nanoTime() - nextPurge >= 0) {
+          jdbc.update(PURGE_SQL, Timestamp.from(Instant.now().minus(retention)));
+          nextPurge = System.nanoTime() + PURGE_INTERVAL.toNanos();
+        }
+        // A full batch means more is waiting; otherwise sleep until a commit or the poll interval
+        if (read < batchSize) {
+          wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+          wakeUps.drainPermits();
+        }
+      } catch (InterruptedException e) {
+        return;
+      } catch (RuntimeException e) {
+        log.warn("Outbox dispatch pass failed", e);
+        try {
+          Thread.sleep(pollInterval.toMillis());
+        } catch (InterruptedException ie) {
+          return;
+        }
+      }
+    }
+  }
+
+  private int dispatchBatch() throws InterruptedException {
+    Timestamp now = Timestamp.from(Instant.now());
+    List<OutboxMessage> ready = jdbc.query(READY_SQL, OutboxDispatcher::message, now, now, batchSize);
+    if (ready.isEmpty()) return 0;
+
+    Map<String, List<OutboxMessage>> chains = new LinkedHashMap<>();
+    for (OutboxMessage m : ready) {
+      chains.computeIfAbsent(m.orderingKey(), k -> new ArrayList<>()).add(m);
+    }
+    List<Future<?>> inFlight = new ArrayList<>(chains.size());
+    for (List<OutboxMessage> chain : chains.values()) {
+      inFlight.add(pool.submit(() -> deliverInOrder(chain)));
+    }
+    for (Future<?> f : inFlight) {
+      try {
+        f.get();
+      } catch (ExecutionException e) {
+        log.warn("Outbox delivery failed", e.getCause());
+      }
+    }
+    return ready.size();
+  }
+
+  // Stops at the first failure: the rest of the chain waits for that event's retry
+  private void deliverInOrder(List<OutboxMessage> chain) {
+    for (OutboxMessage m : chain) {
+      if (!deliver(m)) return;
+    }
+  }
+
+  private boolean deliver(OutboxMessage m) {
+    try {
+      tx.executeWithoutResult(status -> {
+        for (OutboxEventHandler h : handlers) {
+          if (h.handles(m.type())) h.handle(m);
+        }
+        jdbc.update(DONE_SQL, Timestamp.from(Instant.now()), m.id());
+      });
+    } catch (RuntimeException e) {
+      failed(m, e);
+      return false;
+    }
+    meters.counter("outbox.events", "type", m.type(), "outcome", "done").increment();
+    meters.timer("outbox.delivery.lag", "type", m.type()).record(Duration.between(m.createdAt(), Instant.now()));
+    return true;
+  }
+
+  private void failed(OutboxMessage m, RuntimeException e) {
+    int attempts = m.attempts() + 1;
+    String error = e.toString();
+    if (error.length() > 1000) error = error.substring(0, 1000);
+    Instant now = Instant.now();
+    if (attempts >= maxAttempts) {
+      jdbc.update(FAILED_SQL, attempts, Timestamp.from(now), error, m.id());
+      meters.counter("outbox.events", "type", m.type(), "outcome", "failed").increment();
+      log.error("Outbox event {} ({}) failed {} times, giving up", m.id(), m.type(), attempts, e);
+    } else {
+      Duration backoff = backoff(attempts);
+      jdbc.update(RETRY_SQL, attempts, Timestamp.from(now.plus(backoff)), error, m.id());
+      meters.counter("outbox.events", "type", m.type(), "outcome", "retry").increment();
+      log.warn("Outbox event {} ({}) failed, retry {} in {}: {}", m.id(), m.type(), attempts, backoff, error);
+    }
+  }
+
+  private Duration backoff(int attempts) {
+    Duration d = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+    return d.compareTo(maxBackoff) > 0 ? maxBackoff : d;
+  }
+
+  private static OutboxMessage message(ResultSet rs, int rowNum) throws SQLException {
+    return new OutboxMessage(rs.getLong("id"), rs.getString("type"), rs.getString("ordering_key"),
+        rs.getString("payload"), rs.getTimestamp("created_at").toInstant(), rs.getInt("attempts"));
+  }
+}
@@ -0,0 +1,17 @@
+package com.luxestore.outbox;
+
+/**
+ * In-process consumer of outbox events. Every bean implementing this is called for each
+ * event whose type it {@link #handles}, inside the transaction that marks the event
+ * delivered: database writes made here commit exactly once with it, while side effects
+ * outside the database happen at least once and must tolerate repeats.
+ *
+ * <p>Throwing rolls the delivery back and schedules a retry for every handler of that event,
+ * and holds back later events with the same ordering key until it succeeds or gives up.
+ */
+public interface OutboxEventHandler {
+
+  boolean handles(String type);
+
+  void handle(OutboxMessage message);
+}
@@ -0,0 +1,10 @@
+package com.luxestore.outbox;
+
+import java.time.Instant;
+
+/**
+ * An outbox event as handed to {@link OutboxEventHandler}s. {@code payload} is the JSON the
+ * publisher wrote; {@code attempts} counts earlier failed deliveries.
+ */
+public record OutboxMessage(long id, String type, String orderingKey, String payload, Instant createdAt,
+                            int attempts) {}
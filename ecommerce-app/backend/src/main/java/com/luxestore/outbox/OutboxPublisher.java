@@ -0,0 +1,48 @@
+package com.luxestore.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luxestore.model.OutboxEvent;
+import com.luxestore.repository.OutboxEventRepository;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Writes events to the outbox table. Publishing is one insert in the caller's transaction,
+ * so its cost does not depend on how many handlers consume the event, and the event exists
+ * if and only if the change it describes committed.
+ */
+@Component
+public class OutboxPublisher {
+
+  private final OutboxEventRepository repo;
+  private final ObjectMapper mapper;
+  private final ApplicationEventPublisher events;
+
+  public OutboxPublisher(OutboxEventRepository repo, ObjectMapper mapper, ApplicationEventPublisher events) {
+    this.repo = repo;
+    this.mapper = mapper;
+    this.events = events;
+  }
+
+  /**
+   * Records {@code payload} as JSON. Events with the same {@code orderingKey} (e.g. a user
+   * id) are delivered in the order they were published.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void publish(String type, Object orderingKey, Object payload) {
+    String json;
+    try {
+      json = mapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Cannot serialize " + type + " payload", e);
+    }
+    repo.save(new OutboxEvent(type, String.valueOf(orderingKey), json, Instant.now()));
+    events.publishEvent(new OutboxWritten());
+  }
+}
@@ -0,0 +1,4 @@
+package com.luxestore.outbox;
+
+/** Published alongside each outbox row so the dispatcher wakes up once the row commits. */
+record OutboxWritten() {}
@@ -0,0 +1,78 @@
+package com.luxestore.payment;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} transient failures in
+ * a row calls are refused for {@code openDuration}; then a single trial call is let through
+ * and its outcome either closes the circuit or opens it again.
+ */
+class CircuitBreaker {
+
+  enum State { CLOSED, OPEN, HALF_OPEN }
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private final LongSupplier clock;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean trialInFlight;
+
+  CircuitBreaker(int failureThreshold, Duration openDuration) {
+    this(failureThreshold, openDuration, System::nanoTime);
+  }
+
+  CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier clock) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = openDuration.toNanos();
+    this.clock = clock;
+  }
+
+  /** False when the call must not be attempted. A true answer must be followed by exactly one outcome. */
+  synchronized boolean tryAcquire() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (clock.getAsLong() - openedAt < openNanos) return false;
+        state = State.HALF_OPEN;
+        trialInFlight = true;
+        return true;
+      default:
+        if (trialInFlight) return false;
+        trialInFlight = true;
+        return true;
+    }
+  }
+
+  synchronized void onSuccess() {
+    state = State.CLOSED;
+    consecutiveFailures = 0;
+    trialInFlight = false;
+  }
+
+  synchronized void onFailure() {
+    trialInFlight = false;
+    if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = clock.getAsLong();
+      consecutiveFailures = 0;
+    }
+  }
+
+  /** The call went through but its failure says nothing about the provider's health. */
+  synchronized void onIgnored() {
+    if (state == State.HALF_OPEN) {
+      trialInFlight = false;
+    } else {
+      consecutiveFailures = 0;
+    }
+  }
+
+  synchronized State state() {
+    return state;
+  }
+}
@@ -0,0 +1,42 @@
+package com.luxestore.payment;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for tests, demos and load runs without a provider. Intents are kept in
+ * memory and honour idempotency keys like the real gateway; an optional latency delays
+ * each answer without occupying a thread.
+ */
+public class InMemoryPaymentGateway implements PaymentGateway {
+
+  private final Map<String, PaymentIntentResult> byKey = new ConcurrentHashMap<>();
+  private final Duration latency;
+
+  public InMemoryPaymentGateway(Duration latency) {
+    this.latency = latency;
+  }
+
+  @Override
+  public CompletableFuture<PaymentIntentResult> createIntent(PaymentRequest request) {
+    PaymentIntentResult result = request.idempotencyKey() == null
+        ? newIntent()
+        : byKey.computeIfAbsent(request.idempotencyKey(), k -> newIntent());
+    if (latency.isZero()) return CompletableFuture.completedFuture(result);
+    return CompletableFuture.supplyAsync(() -> result,
+        CompletableFuture.delayedExecutor(latency.toMillis(), TimeUnit.MILLISECONDS));
+  }
+
+  public int size() {
+    return byKey.size();
+  }
+
+  private static PaymentIntentResult newIntent() {
+    String id = "pi_local_" + UUID.randomUUID().toString().replace("-", "");
+    return new PaymentIntentResult(id, id + "_secret_local", "requires_payment_method");
+  }
+}
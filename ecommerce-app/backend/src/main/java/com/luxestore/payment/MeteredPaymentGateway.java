@@ -0,0 +1,47 @@
+package com.luxestore.payment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Times every call as {@code payment.gateway.requests}, tagged with the provider and the
+ * outcome: {@code success}, {@code timeout}, {@code rejected} (bulkhead full or circuit
+ * open, the provider was never called), {@code failed} or {@code error}.
+ */
+public class MeteredPaymentGateway implements PaymentGateway {
+
+  private final PaymentGateway delegate;
+  private final MeterRegistry meters;
+  private final String provider;
+
+  public MeteredPaymentGateway(PaymentGateway delegate, MeterRegistry meters, String provider) {
+    this.delegate = delegate;
+    this.meters = meters;
+    this.provider = provider;
+  }
+
+  @Override
+  public CompletableFuture<PaymentIntentResult> createIntent(PaymentRequest request) {
+    Timer.Sample sample = Timer.start(meters);
+    return delegate.createIntent(request).whenComplete((result, ex) -> sample.stop(timer(outcome(ex))));
+  }
+
+  private Timer timer(String outcome) {
+    return Timer.builder("payment.gateway.requests")
+        .tag("provider", provider)
+        .tag("outcome", outcome)
+        .register(meters);
+  }
+
+  private static String outcome(Throwable ex) {
+    if (ex == null) return "success";
+    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    if (cause instanceof PaymentTimeoutException) return "timeout";
+    if (cause instanceof PaymentUnavailableException) return "rejected";
+    if (cause instanceof PaymentFailedException) return "failed";
+    return "error";
+  }
+}
@@ -0,0 +1,46 @@
+package com.luxestore.payment;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * {@code payment.gateway=stripe} (default) talks to Stripe; {@code in-memory} uses
+ * {@link InMemoryPaymentGateway}. Either way the gateway is wrapped in
+ * {@link ResilientPaymentGateway} and, outermost, {@link MeteredPaymentGateway}, so calls
+ * refused by the bulkhead or circuit breaker are timed too.
+ */
+@Configuration
+public class PaymentConfig {
+
+  @Bean
+  public PaymentGateway paymentGateway(MeterRegistry meters,
+                                       @Value("${payment.gateway:stripe}") String type,
+                                       @Value("${payment.stripe.connect-timeout:2s}") Duration connectTimeout,
+                                       @Value("${payment.stripe.read-timeout:8s}") Duration readTimeout,
+                                       @Value("${payment.stripe.max-network-retries:2}") int maxNetworkRetries,
+                                       @Value("${payment.in-memory.latency:0ms}") Duration latency,
+                                       @Value("${payment.max-concurrent:50}") int maxConcurrent,
+                                       @Value("${payment.deadline:10s}") Duration deadline,
+                                       @Value("${payment.circuit.failure-threshold:5}") int failureThreshold,
+                                       @Value("${payment.circuit.open-duration:30s}") Duration openDuration) {
+    PaymentGateway provider = switch (type) {
+      case "stripe" -> new StripePaymentGateway(connectTimeout, readTimeout, maxNetworkRetries);
+      case "in-memory" -> new InMemoryPaymentGateway(latency);
+      default -> throw new IllegalArgumentException("Unknown payment.gateway: " + type);
+    };
+    ResilientPaymentGateway guarded = new ResilientPaymentGateway(provider, maxConcurrent, deadline, failureThreshold, openDuration);
+    Gauge.builder("payment.gateway.in_flight", guarded, ResilientPaymentGateway::inFlight)
+        .tag("provider", type)
+        .register(meters);
+    Gauge.builder("payment.gateway.circuit_state", guarded, ResilientPaymentGateway::circuitStateOrdinal)
+        .tag("provider", type)
+        .register(meters);
+    return new MeteredPaymentGateway(guarded, meters, type);
+  }
+}
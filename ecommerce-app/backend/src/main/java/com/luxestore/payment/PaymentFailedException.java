@@ -0,0 +1,24 @@
+package com.luxestore.payment;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The provider answered with an error. {@link #isTransient()} tells the circuit breaker
+ * whether this says anything about the provider's health (connection failures, 429, 5xx)
+ * or only about the request itself.
+ */
+@ResponseStatus(HttpStatus.BAD_GATEWAY)
+public class PaymentFailedException extends RuntimeException {
+
+  private final boolean transientFailure;
+
+  public PaymentFailedException(String message, boolean transientFailure, Throwable cause) {
+    super(message, cause);
+    this.transientFailure = transientFailure;
+  }
+
+  public boolean isTransient() {
+    return transientFailure;
+  }
+}
@@ -0,0 +1,18 @@
+package com.luxestore.payment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates payment intents with an external provider. Implementations never block the
+ * calling thread; failures surface through the returned future as
+ * {@link PaymentUnavailableException}, {@link PaymentTimeoutException} or
+ * {@link PaymentFailedException}.
+ */
+public interface PaymentGateway {
+
+  /**
+   * Repeating a request with the same {@link PaymentRequest#idempotencyKey()} returns the
+   * intent created the first time instead of a new one.
+   */
+  CompletableFuture<PaymentIntentResult> createIntent(PaymentRequest request);
+}
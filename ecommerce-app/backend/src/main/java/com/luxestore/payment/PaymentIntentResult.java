@@ -0,0 +1,3 @@
+package com.luxestore.payment;
+
+public record PaymentIntentResult(String id, String clientSecret, String status) {}
@@ -0,0 +1,15 @@
+package com.luxestore.payment;
+
+import java.util.Map;
+
+/**
+ * @param amount         in the currency's minor unit (cents, paise)
+ * @param idempotencyKey may be null, in which case every call creates a new intent
+ */
+public record PaymentRequest(long amount, String currency, String idempotencyKey, Map<String, String> metadata) {
+
+  public PaymentRequest {
+    if (amount <= 0) throw new IllegalArgumentException("Amount must be positive");
+    metadata = metadata == null ? Map.of() : Map.copyOf(metadata);
+  }
+}
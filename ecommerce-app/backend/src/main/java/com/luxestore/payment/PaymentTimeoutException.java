@@ -0,0 +1,13 @@
+package com.luxestore.payment;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The provider did not answer within the per-call deadline. */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class PaymentTimeoutException extends RuntimeException {
+
+  public PaymentTimeoutException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,13 @@
+package com.luxestore.payment;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The gateway was not called: its bulkhead is full or its circuit breaker is open. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PaymentUnavailableException extends RuntimeException {
+
+  public PaymentUnavailableException(String message) {
+    super(message);
+  }
+}
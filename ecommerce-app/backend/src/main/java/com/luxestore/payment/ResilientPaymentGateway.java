@@ -0,0 +1,99 @@
+package com.luxestore.payment;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Guards another gateway with three limits so a slow or failing provider costs callers a
+ * fast 503/504 instead of their threads:
+ * <ul>
+ *   <li>a bulkhead caps calls in flight; excess calls are refused immediately,</li>
+ *   <li>every call gets a deadline, after which the caller's future fails with
+ *       {@link PaymentTimeoutException},</li>
+ *   <li>a {@link CircuitBreaker} stops calling the provider after repeated transient
+ *       failures or timeouts.</li>
+ * </ul>
+ * The bulkhead permit is held until the underlying call really finishes, not until its
+ * deadline, so abandoned calls still count against the cap.
+ */
+public class ResilientPaymentGateway implements PaymentGateway {
+
+  private final PaymentGateway delegate;
+  private final Semaphore bulkhead;
+  private final int maxConcurrent;
+  private final long deadlineMillis;
+  private final CircuitBreaker breaker;
+
+  public ResilientPaymentGateway(PaymentGateway delegate, int maxConcurrent, Duration deadline,
+                                 int failureThreshold, Duration openDuration) {
+    this(delegate, maxConcurrent, deadline, failureThreshold, openDuration, System::nanoTime);
+  }
+
+  ResilientPaymentGateway(PaymentGateway delegate, int maxConcurrent, Duration deadline,
+                          int failureThreshold, Duration openDuration, LongSupplier clock) {
+    this.delegate = delegate;
+    this.maxConcurrent = maxConcurrent;
+    this.bulkhead = new Semaphore(maxConcurrent);
+    this.deadlineMillis = deadline.toMillis();
+    this.breaker = new CircuitBreaker(failureThreshold, openDuration, clock);
+  }
+
+  @Override
+  public CompletableFuture<PaymentIntentResult> createIntent(PaymentRequest request) {
+    if (!bulkhead.tryAcquire()) {
+      return CompletableFuture.failedFuture(new PaymentUnavailableException("Payment gateway is at capacity"));
+    }
+    if (!breaker.tryAcquire()) {
+      bulkhead.release();
+      return CompletableFuture.failedFuture(new PaymentUnavailableException("Payment gateway is temporarily unavailable"));
+    }
+
+    CompletableFuture<PaymentIntentResult> call;
+    try {
+      call = delegate.createIntent(request);
+    } catch (RuntimeException e) {
+      bulkhead.release();
+      breaker.onFailure();
+      return CompletableFuture.failedFuture(e);
+    }
+    call.whenComplete((r, ex) -> bulkhead.release());
+
+    return call.copy()
+        .orTimeout(deadlineMillis, TimeUnit.MILLISECONDS)
+        .handle((result, ex) -> {
+          if (ex == null) {
+            breaker.onSuccess();
+            return result;
+          }
+          Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+          if (cause instanceof TimeoutException) {
+            breaker.onFailure();
+            throw new PaymentTimeoutException("Payment gateway did not answer within " + deadlineMillis + " ms");
+          }
+          if (cause instanceof PaymentFailedException pf && !pf.isTransient()) {
+            breaker.onIgnored();
+          } else {
+            breaker.onFailure();
+          }
+          throw cause instanceof RuntimeException re ? re : new CompletionException(cause);
+        });
+  }
+
+  public int inFlight() {
+    return maxConcurrent - bulkhead.availablePermits();
+  }
+
+  public String circuitState() {
+    return breaker.state().name();
+  }
+
+  /** For gauges: 0 closed, 1 open, 2 half-open. */
+  public int circuitStateOrdinal() {
+    return breaker.state().ordinal();
+  }
+}
@@ -0,0 +1,58 @@
+package com.luxestore.payment;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Calls the blocking Stripe SDK on virtual threads so request threads are never held by
+ * it. Connect and read timeouts are set on every call; network retries are left to the
+ * SDK, which is safe because each request carries an idempotency key.
+ */
+public class StripePaymentGateway implements PaymentGateway {
+
+  private final Executor executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final int connectTimeoutMillis;
+  private final int readTimeoutMillis;
+  private final int maxNetworkRetries;
+
+  public StripePaymentGateway(Duration connectTimeout, Duration readTimeout, int maxNetworkRetries) {
+    this.connectTimeoutMillis = (int) connectTimeout.toMillis();
+    this.readTimeoutMillis = (int) readTimeout.toMillis();
+    this.maxNetworkRetries = maxNetworkRetries;
+  }
+
+  @Override
+  public CompletableFuture<PaymentIntentResult> createIntent(PaymentRequest request) {
+    return CompletableFuture.supplyAsync(() -> create(request), executor);
+  }
+
+  private PaymentIntentResult create(PaymentRequest request) {
+    PaymentIntentCreateParams.Builder params = PaymentIntentCreateParams.builder()
+        .setAmount(request.amount())
+        .setCurrency(request.currency())
+        .addPaymentMethodType("card");
+    request.metadata().forEach(params::putMetadata);
+
+    RequestOptions.RequestOptionsBuilder options = RequestOptions.builder()
+        .setConnectTimeout(connectTimeoutMillis)
+        .setReadTimeout(readTimeoutMillis)
+        .setMaxNetworkRetries(maxNetworkRetries);
+    if (request.idempotencyKey() != null) options.setIdempotencyKey(request.idempotencyKey());
+
+    try {
+      PaymentIntent intent = PaymentIntent.create(params.build(), options.build());
+      return new PaymentIntentResult(intent.getId(), intent.getClientSecret(), intent.getStatus());
+    } catch (StripeException e) {
+      Integer status = e.getStatusCode();
+      boolean transientFailure = status == null || status == 429 || status >= 500;
+      throw new PaymentFailedException("Stripe rejected the payment intent: " + e.getMessage(), transientFailure, e);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.luxestore.repository;
 
+import com.luxestore.dto.CartLineRow;
 import com.luxestore.model.CartItem;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,11 +10,18 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import jakarta.transaction.Transactional;
 
 @Repository
 public interface CartRepository extends JpaRepository<CartItem, Long> {
   List<CartItem> findByUserId(Long userId);
+  Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
+
+  // Cart lines with live product data in one round trip
+  @Query("SELECT new com.luxestore.dto.CartLineRow(c.id, c.productId, c.quantity, p.name, p.category, p.image, p.price, p.quantity) "
+      + "FROM CartItem c LEFT JOIN Product p ON p.id = c.productId WHERE c.userId = :userId ORDER BY c.id")
+  List<CartLineRow> findLinesWithProducts(@Param("userId") Long userId);
   //void deleteByUserIdAndProductId(Long userId, Long productId);
 
     @Modifying
@@ -25,4 +33,9 @@ public interface CartRepository extends JpaRepository<CartItem, Long> {
   @Transactional
   @Query("DELETE FROM CartItem c WHERE c.userId = :userId AND c.productId = :productId")
   void deleteByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM CartItem c WHERE c.userId = :userId")
+  int deleteByUserId(@Param("userId") Long userId);
 }
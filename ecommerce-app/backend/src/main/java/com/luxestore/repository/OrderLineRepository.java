@@ -0,0 +1,22 @@
+package com.luxestore.repository;
+
+import com.luxestore.dto.OrderLineView;
+import com.luxestore.model.OrderLine;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+
+  @Query("SELECT new com.luxestore.dto.OrderLineView(l.orderId, l.productId, l.productName, l.quantity, l.unitPrice) "
+      + "FROM OrderLine l WHERE l.orderId IN :orderIds ORDER BY l.orderId, l.id")
+  List<OrderLineView> findViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+  boolean existsByOrderId(Long orderId);
+}
@@ -1,9 +1,27 @@
 package com.luxestore.repository;
 
+import com.luxestore.dto.OrderSummary;
 import com.luxestore.model.OrderEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
+import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
+public interface OrderRepository extends JpaRepository<OrderEntity, Long>, OrderRepositoryCustom {
   List<OrderEntity> findByUserId(Long userId);
+
+  @Query("SELECT new com.luxestore.dto.OrderSummary(o.id, o.userId, o.orderDate, o.total) "
+      + "FROM OrderEntity o WHERE o.userId = :userId ORDER BY o.orderDate DESC, o.id DESC")
+  List<OrderSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+  // Scoped to the owner so one user cannot read another's order by guessing ids
+  @Query("SELECT new com.luxestore.dto.OrderSummary(o.id, o.userId, o.orderDate, o.total) "
+      + "FROM OrderEntity o WHERE o.id = :id AND o.userId = :userId")
+  Optional<OrderSummary> findSummary(@Param("userId") Long userId, @Param("id") Long id);
+
+  // Legacy rows whose items still live only in the itemsJson LOB, walked in id order
+  @Query("SELECT o.id FROM OrderEntity o WHERE o.itemsJson IS NOT NULL AND o.id > :afterId ORDER BY o.id")
+  List<Long> findIdsWithItemsJson(@Param("afterId") Long afterId, Pageable page);
 }
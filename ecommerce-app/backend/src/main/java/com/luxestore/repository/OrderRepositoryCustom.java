@@ -0,0 +1,8 @@
+package com.luxestore.repository;
+
+import com.luxestore.dto.OrderPage;
+import com.luxestore.dto.OrderQuery;
+
+public interface OrderRepositoryCustom {
+  OrderPage findPage(OrderQuery query);
+}
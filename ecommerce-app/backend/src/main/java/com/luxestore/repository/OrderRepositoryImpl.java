@@ -0,0 +1,68 @@
+package com.luxestore.repository;
+
+import com.luxestore.dto.OrderPage;
+import com.luxestore.dto.OrderQuery;
+import com.luxestore.dto.OrderSummary;
+import com.luxestore.model.OrderEntity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Keyset pagination over one user's orders, newest first. The date range and the seek past
+ * the previous page are both bounds on the {@code user_id, order_date, id} index, so every
+ * page is one short range scan whether the user has five orders or five thousand.
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager em;
+
+  @Override
+  public OrderPage findPage(OrderQuery q) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<OrderSummary> cq = cb.createQuery(OrderSummary.class);
+    Root<OrderEntity> o = cq.from(OrderEntity.class);
+
+    // Header columns only; the legacy itemsJson LOB is never read
+    cq.select(cb.construct(OrderSummary.class, o.get("id"), o.get("userId"), o.get("orderDate"), o.get("total")));
+
+    Path<Date> orderDate = o.get("orderDate");
+    Path<Long> id = o.get("id");
+    List<Predicate> where = new ArrayList<>();
+    where.add(cb.equal(o.get("userId"), q.getUserId()));
+    if (q.getFrom() != null) {
+      where.add(cb.greaterThanOrEqualTo(orderDate, Timestamp.from(q.getFrom())));
+    }
+    if (q.getTo() != null) {
+      where.add(cb.lessThan(orderDate, Timestamp.from(q.getTo())));
+    }
+    if (q.hasCursor()) {
+      // (orderDate, id) < (lastDate, lastId) expanded for row-value-less databases
+      Date last = Timestamp.from(q.getAfterDate());
+      where.add(cb.or(cb.lessThan(orderDate, last),
+          cb.and(cb.equal(orderDate, last), cb.lessThan(id, q.getAfterId()))));
+    }
+    cq.where(where.toArray(new Predicate[0]));
+    cq.orderBy(cb.desc(orderDate), cb.desc(id));
+
+    // Fetch one extra row to know whether another page exists without a count query
+    List<OrderSummary> rows = em.createQuery(cq)
+        .setMaxResults(q.getLimit() + 1)
+        .getResultList();
+
+    String next = null;
+    if (rows.size() > q.getLimit()) {
+      rows = rows.subList(0, q.getLimit());
+      OrderSummary last = rows.get(rows.size() - 1);
+      next = OrderQuery.encodeCursor(last.orderDate().toInstant(), last.id());
+    }
+    return new OrderPage(List.copyOf(rows), next);
+  }
+}
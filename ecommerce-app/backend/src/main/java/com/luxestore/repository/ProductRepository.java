@@ -2,7 +2,30 @@ package com.luxestore.repository;
 
 import com.luxestore.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
+import jakarta.transaction.Transactional;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {}
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+  List<Product> findByCategory(String category);
+
+  // Check and decrement in one statement; returns 0 when the row lacks enough stock
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE Product p SET p.quantity = p.quantity - :qty WHERE p.id = :id AND p.quantity >= :qty")
+  int decrementIfAvailable(@Param("id") Long id, @Param("qty") int qty);
+
+  @Modifying(clearAutomatically = true)
+  @Transactional
+  @Query("UPDATE Product p SET p.quantity = p.quantity + :qty WHERE p.id = :id")
+  int increment(@Param("id") Long id, @Param("qty") int qty);
+
+  @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+  Integer findQuantityById(@Param("id") Long id);
+}
@@ -0,0 +1,8 @@
+package com.luxestore.repository;
+
+import com.luxestore.dto.ProductPage;
+import com.luxestore.dto.ProductQuery;
+
+public interface ProductRepositoryCustom {
+  ProductPage findPage(ProductQuery query);
+}
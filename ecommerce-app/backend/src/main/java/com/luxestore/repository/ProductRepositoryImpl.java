@@ -0,0 +1,135 @@
+package com.luxestore.repository;
+
+import com.luxestore.dto.ProductPage;
+import com.luxestore.dto.ProductQuery;
+import com.luxestore.dto.ProductSort;
+import com.luxestore.dto.ProductSummary;
+import com.luxestore.model.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset pagination over the product table. Each page is a single index range scan
+ * ({@code category, price, id} or {@code price, id}) seeking past the last row of the
+ * previous page, so the cost of page N does not grow with N the way OFFSET does.
+ *
+ * <p>Name is the only nullable sort key. Null names sort above every other name (last when
+ * ascending, first when descending), as PostgreSQL orders them by default. The order is
+ * spelled out in the query and in the seek, so it is the same on every database.
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager em;
+
+  @Override
+  public ProductPage findPage(ProductQuery q) {
+    CriteriaBuilder cb = em.getCriteriaBuilder();
+    CriteriaQuery<ProductSummary> cq = cb.createQuery(ProductSummary.class);
+    Root<Product> p = cq.from(Product.class);
+
+    cq.select(cb.construct(ProductSummary.class,
+        p.get("id"), p.get("name"), p.get("category"), p.get("price"), p.get("image"), p.get("quantity")));
+
+    List<Predicate> where = new ArrayList<>();
+    if (q.getCategory() != null && !q.getCategory().isBlank()) {
+      where.add(cb.equal(p.get("category"), q.getCategory()));
+    }
+    if (q.getMinPrice() != null) {
+      where.add(cb.greaterThanOrEqualTo(p.<Double>get("price"), q.getMinPrice()));
+    }
+    if (q.getMaxPrice() != null) {
+      where.add(cb.lessThanOrEqualTo(p.<Double>get("price"), q.getMaxPrice()));
+    }
+    if (q.getInStock() != null) {
+      where.add(q.getInStock()
+          ? cb.greaterThan(p.<Integer>get("quantity"), 0)
+          : cb.lessThanOrEqualTo(p.<Integer>get("quantity"), 0));
+    }
+    if (q.hasCursor()) {
+      where.add(seekPredicate(cb, p, q));
+    }
+    cq.where(where.toArray(new Predicate[0]));
+
+    Path<?> key = sortPath(p, q.getSort());
+    Path<Long> id = p.get("id");
+    // JPA has no null ordering; the boolean is nullsFirst, so nulls are highest in either direction
+    HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+    if (q.isDescending()) {
+      cq.orderBy(hcb.desc(key, true), cb.desc(id));
+    } else {
+      cq.orderBy(hcb.asc(key, false), cb.asc(id));
+    }
+
+    // Fetch one extra row to know whether another page exists without a count query
+    List<ProductSummary> rows = em.createQuery(cq)
+        .setMaxResults(q.getLimit() + 1)
+        .getResultList();
+
+    String next = null;
+    if (rows.size() > q.getLimit()) {
+      rows = rows.subList(0, q.getLimit());
+      ProductSummary last = rows.get(rows.size() - 1);
+      next = ProductQuery.encodeCursor(q.getSort(), sortValue(last, q.getSort()), last.id());
+    }
+    return new ProductPage(List.copyOf(rows), next);
+  }
+
+  private static Path<?> sortPath(Root<Product> p, ProductSort sort) {
+    switch (sort) {
+      case PRICE: return p.get("price");
+      case NAME: return p.get("name");
+      default: return p.get("id");
+    }
+  }
+
+  private static Object sortValue(ProductSummary s, ProductSort sort) {
+    switch (sort) {
+      case PRICE: return s.price();
+      case NAME: return s.name();
+      default: return s.id();
+    }
+  }
+
+  // (key, id) > (lastKey, lastId) expanded for row-value-less databases
+  private static Predicate seekPredicate(CriteriaBuilder cb, Root<Product> p, ProductQuery q) {
+    Path<Long> id = p.get("id");
+    Long lastId = q.getAfterId();
+    boolean desc = q.isDescending();
+    try {
+      switch (q.getSort()) {
+        case PRICE: {
+          Path<Double> price = p.get("price");
+          Double last = Double.valueOf(q.getAfterValue());
+          return cb.or(desc ? cb.lessThan(price, last) : cb.greaterThan(price, last),
+              cb.and(cb.equal(price, last), desc ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId)));
+        }
+        case NAME: {
+          Path<String> name = p.get("name");
+          String last = q.getAfterValue();
+          Predicate afterId = desc ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+          if (last == null) {
+            // Inside the null block: the rest of it, then (descending) every named row
+            Predicate restOfNulls = cb.and(cb.isNull(name), afterId);
+            return desc ? cb.or(restOfNulls, cb.isNotNull(name)) : restOfNulls;
+          }
+          Predicate past = cb.or(desc ? cb.lessThan(name, last) : cb.greaterThan(name, last),
+              cb.and(cb.equal(name, last), afterId));
+          // Ascending, the null block is still ahead
+          return desc ? past : cb.or(past, cb.isNull(name));
+        }
+        default:
+          return desc ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Malformed cursor", e);
+    }
+  }
+}
@@ -1,13 +1,27 @@
 package com.luxestore.repository;
 
 import com.luxestore.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
+import jakarta.transaction.Transactional;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
-}
 
+  // User and roles in one joined select instead of a follow-up collection query
+  @EntityGraph(attributePaths = "roles")
+  Optional<User> findWithRolesByEmail(String email);
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE User u SET u.password = :hash WHERE u.id = :id")
+  int updatePassword(@Param("id") Long id, @Param("hash") String hash);
+}
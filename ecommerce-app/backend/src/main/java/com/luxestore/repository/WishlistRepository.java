@@ -17,6 +17,9 @@ import jakarta.transaction.Transactional;
 public interface WishlistRepository extends JpaRepository<WishlistItem, Long> {
   List<WishlistItem> findByUserId(Long userId);
   Optional<WishlistItem> findByUserIdAndProductId(Long userId, Long productId);
+
+  @Query("SELECT w.productId FROM WishlistItem w WHERE w.userId = :userId")
+  List<Long> findProductIdsByUserId(@Param("userId") Long userId);
   //void deleteByUserIdAndProductId(Long userId, Long productId);
 
 @Modifying
@@ -0,0 +1,403 @@
+package com.luxestore.search;
+
+import com.luxestore.dto.ProductSummary;
+import com.luxestore.event.ProductChangedEvent;
+import com.luxestore.model.Product;
+import com.luxestore.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name and category. Terms live in a sorted map so a
+ * trailing partial word expands to every indexed term with that prefix (typeahead). Every
+ * query word must match; matches are scored by the sum of idf x field weight, where a name
+ * hit counts double a category hit and a prefix-only hit is discounted against an exact one.
+ *
+ * <p>The index is rebuilt from the product table at startup and kept current from
+ * {@link ProductChangedEvent}s after commit. Reads take a shared lock and never touch the
+ * database. Events only mark ids dirty; one refresher thread re-reads and applies them, so a
+ * slow read can never land on top of a newer one.
+ */
+@Service
+public class ProductSearchIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+  static final float NAME_WEIGHT = 2f;
+  static final float CATEGORY_WEIGHT = 1f;
+  static final float PREFIX_DISCOUNT = 0.7f;
+  /** Upper bound on terms one partial word may expand to, so "a" stays cheap. */
+  static final int MAX_PREFIX_TERMS = 64;
+  public static final int MAX_LIMIT = 100;
+  private static final long IDLE_WAIT_MILLIS = 1000;
+  private static final long RETRY_BACKOFF_MILLIS = 1000;
+
+  private record Doc(Long id, String name, String category, double price, String image, int quantity,
+                     Set<String> terms) {
+
+    Doc withQuantity(int q) {
+      return new Doc(id, name, category, price, image, q, terms);
+    }
+
+    ProductSummary summary() {
+      return new ProductSummary(id, name, category, price, image, quantity);
+    }
+  }
+
+  private record Hit(Doc doc, float score) {}
+
+  private final ProductRepository repo;
+  private final JdbcTemplate jdbc;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private Map<Long, Doc> docs = new HashMap<>();
+  private TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+  // Non-null while a rebuild is reading the table; changes seen meanwhile are replayed after it
+  private volatile Set<Long> changedDuringRebuild;
+
+  // Products to re-read: the whole document, or only quantity when nothing but stock moved
+  private final Set<Long> dirtyDocs = ConcurrentHashMap.newKeySet();
+  private final Set<Long> dirtyQuantities = ConcurrentHashMap.newKeySet();
+  private final Semaphore wakeUps = new Semaphore(0);
+  private volatile boolean running = true;
+  private final Thread refresher = Thread.ofPlatform().name("search-index").daemon().unstarted(this::refreshLoop);
+
+  public ProductSearchIndex(ProductRepository repo, JdbcTemplate jdbc, MeterRegistry meters) {
+    this.repo = repo;
+    this.jdbc = jdbc;
+    Gauge.builder("search.index.documents", this, ProductSearchIndex::size).register(meters);
+    Gauge.builder("search.index.terms", this, ProductSearchIndex::terms).register(meters);
+  }
+
+  @PostConstruct
+  void start() {
+    refresher.start();
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    refresher.interrupt();
+    refresher.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long started = System.nanoTime();
+    changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    Map<Long, Doc> newDocs = new HashMap<>();
+    TreeMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+    jdbc.query("SELECT id, name, category, price, image, quantity FROM product", rs -> {
+      Doc doc = toDoc(rs.getLong("id"), rs.getString("name"), rs.getString("category"), rs.getDouble("price"),
+          rs.getString("image"), rs.getInt("quantity"));
+      add(newDocs, newPostings, doc);
+    });
+
+    Set<Long> replay;
+    lock.writeLock().lock();
+    try {
+      docs = newDocs;
+      postings = newPostings;
+      replay = changedDuringRebuild;
+      changedDuringRebuild = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (!replay.isEmpty()) markDirty(replay, false);
+    log.info("Search index built: {} products, {} terms in {} ms", newDocs.size(), newPostings.size(),
+        (System.nanoTime() - started) / 1_000_000);
+  }
+
+  // Removed products are re-read like any other: a row that is gone is dropped from the index
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    Set<Long> pending = changedDuringRebuild;
+    if (pending != null) pending.addAll(event.productIds());
+    markDirty(event.productIds(), event.change() == ProductChangedEvent.Change.STOCK);
+  }
+
+  /**
+   * Products matching every word of the query, best first. The last word is matched as a
+   * prefix unless the query ends in a space or punctuation.
+   */
+  public List<ProductSummary> search(String query, String category, Boolean inStock, int limit) {
+    List<String> tokens = SearchTokenizer.tokenize(query);
+    if (tokens.isEmpty()) return List.of();
+    boolean prefixLast = SearchTokenizer.endsInWord(query);
+    int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+    lock.readLock().lock();
+    try {
+      List<Map<Long, Float>> perToken = new ArrayList<>(tokens.size());
+      for (int i = 0; i < tokens.size(); i++) {
+        Map<Long, Float> scores = score(tokens.get(i), prefixLast && i == tokens.size() - 1);
+        if (scores.isEmpty()) return List.of();
+        perToken.add(scores);
+      }
+      // Drive the intersection from the rarest word
+      perToken.sort(Comparator.comparingInt(Map::size));
+
+      PriorityQueue<Hit> top = new PriorityQueue<>(k + 1, RANKING.reversed());
+      outer:
+      for (Map.Entry<Long, Float> candidate : perToken.get(0).entrySet()) {
+        float score = candidate.getValue();
+        for (int i = 1; i < perToken.size(); i++) {
+          Float s = perToken.get(i).get(candidate.getKey());
+          if (s == null) continue outer;
+          score += s;
+        }
+        Doc doc = docs.get(candidate.getKey());
+        if (category != null && !category.equalsIgnoreCase(doc.category())) continue;
+        if (inStock != null && inStock != (doc.quantity() > 0)) continue;
+        top.add(new Hit(doc, score));
+        if (top.size() > k) top.poll();
+      }
+
+      List<ProductSummary> result = new ArrayList<>(top.size());
+      top.stream().sorted(RANKING).forEach(h -> result.add(h.doc().summary()));
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Completions for the word being typed, most common first, each returned as the full
+   * query text (earlier words kept). Only terms that co-occur with the earlier words count.
+   */
+  public List<String> suggest(String query, int limit) {
+    List<String> tokens = SearchTokenizer.tokenize(query);
+    if (tokens.isEmpty() || !SearchTokenizer.endsInWord(query)) return List.of();
+    String prefix = tokens.get(tokens.size() - 1);
+    String context = String.join(" ", tokens.subList(0, tokens.size() - 1));
+    int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+    lock.readLock().lock();
+    try {
+      Set<Long> within = null;
+      for (String t : tokens.subList(0, tokens.size() - 1)) {
+        Map<Long, Float> p = postings.get(t);
+        if (p == null) return List.of();
+        if (within == null) {
+          within = new HashSet<>(p.keySet());
+        } else {
+          within.retainAll(p.keySet());
+        }
+      }
+
+      PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(k + 1, Map.Entry.comparingByValue());
+      int scanned = 0;
+      for (Map.Entry<String, Map<Long, Float>> e : prefixRange(prefix).entrySet()) {
+        if (++scanned > MAX_PREFIX_TERMS * 4) break;
+        int count = within == null ? e.getValue().size() : countIn(e.getValue().keySet(), within);
+        if (count == 0) continue;
+        top.add(Map.entry(e.getKey(), count));
+        if (top.size() > k) top.poll();
+      }
+      List<Map.Entry<String, Integer>> ranked = new ArrayList<>(top);
+      ranked.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+      List<String> result = new ArrayList<>(ranked.size());
+      for (Map.Entry<String, Integer> e : ranked) {
+        result.add(context.isEmpty() ? e.getKey() : context + " " + e.getKey());
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return docs.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int terms() {
+    lock.readLock().lock();
+    try {
+      return postings.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Higher score first; ties go to the shorter (more specific) name, then the lower id
+  private static final Comparator<Hit> RANKING = Comparator.comparingDouble((Hit h) -> -h.score())
+      .thenComparingInt(h -> h.doc().name() == null ? Integer.MAX_VALUE : h.doc().name().length())
+      .thenComparing(h -> h.doc().id());
+
+  // Per-document score of one query word: idf x field weight, best matching term wins
+  private Map<Long, Float> score(String token, boolean prefix) {
+    int n = Math.max(1, docs.size());
+    Map<Long, Float> scores = new HashMap<>();
+    if (!prefix) {
+      Map<Long, Float> p = postings.get(token);
+      if (p != null) accumulate(scores, p, idf(n, p.size()));
+      return scores;
+    }
+    int expanded = 0;
+    for (Map.Entry<String, Map<Long, Float>> e : prefixRange(token).entrySet()) {
+      if (++expanded > MAX_PREFIX_TERMS) break;
+      float weight = idf(n, e.getValue().size()) * (e.getKey().equals(token) ? 1f : PREFIX_DISCOUNT);
+      accumulate(scores, e.getValue(), weight);
+    }
+    return scores;
+  }
+
+  private static void accumulate(Map<Long, Float> scores, Map<Long, Float> posting, float weight) {
+    for (Map.Entry<Long, Float> d : posting.entrySet()) {
+      scores.merge(d.getKey(), d.getValue() * weight, Math::max);
+    }
+  }
+
+  private static float idf(int docs, int df) {
+    return (float) Math.log(1 + (double) docs / df);
+  }
+
+  private NavigableMap<String, Map<Long, Float>> prefixRange(String prefix) {
+    return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+  }
+
+  private static int countIn(Set<Long> ids, Set<Long> within) {
+    Set<Long> small = ids.size() < within.size() ? ids : within;
+    Set<Long> large = small == ids ? within : ids;
+    int n = 0;
+    for (Long id : small) {
+      if (large.contains(id)) n++;
+    }
+    return n;
+  }
+
+  private void markDirty(Set<Long> ids, boolean quantityOnly) {
+    (quantityOnly ? dirtyQuantities : dirtyDocs).addAll(ids);
+    wakeUps.release();
+  }
+
+  // The only caller of refresh and refreshQuantities, so their reads are applied in order.
+  // An id leaves its dirty set before it is read; a change committed meanwhile marks it again.
+  private void refreshLoop() {
+    while (running) {
+      try {
+        wakeUps.tryAcquire(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        wakeUps.drainPermits();
+        if (!refreshPending()) Thread.sleep(RETRY_BACKOFF_MILLIS);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  /** One pass over the dirty ids; false if it failed and the ids were put back for a retry. */
+  boolean refreshPending() {
+    Set<Long> full = drain(dirtyDocs);
+    Set<Long> quantities = drain(dirtyQuantities);
+    quantities.removeAll(full);
+    try {
+      if (!full.isEmpty()) refresh(full);
+      if (!quantities.isEmpty()) refreshQuantities(quantities);
+      return true;
+    } catch (RuntimeException e) {
+      // Put the drained ids back, or the index keeps their stale documents until the next edit
+      log.warn("Search index refresh of {} products failed, retrying", full.size() + quantities.size(), e);
+      dirtyDocs.addAll(full);
+      dirtyQuantities.addAll(quantities);
+      return false;
+    }
+  }
+
+  private static Set<Long> drain(Set<Long> dirty) {
+    Set<Long> ids = new HashSet<>();
+    for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+      ids.add(it.next());
+      it.remove();
+    }
+    return ids;
+  }
+
+  private void refresh(Set<Long> ids) {
+    List<Product> products = repo.findAllById(ids);
+    lock.writeLock().lock();
+    try {
+      Set<Long> missing = new HashSet<>(ids);
+      for (Product p : products) {
+        missing.remove(p.getId());
+        remove(p.getId());
+        add(docs, postings, toDoc(p.getId(), p.getName(), p.getCategory(), p.getPrice(), p.getImage(), p.getQuantity()));
+      }
+      missing.forEach(this::remove);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Stock moves are frequent and never change the text, so only the stored quantity is updated
+  private void refreshQuantities(Set<Long> ids) {
+    List<Product> products = repo.findAllById(ids);
+    lock.writeLock().lock();
+    try {
+      for (Product p : products) {
+        docs.computeIfPresent(p.getId(), (id, doc) -> doc.withQuantity(p.getQuantity()));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static Doc toDoc(Long id, String name, String category, double price, String image, int quantity) {
+    Set<String> terms = new HashSet<>(SearchTokenizer.tokenize(name));
+    terms.addAll(SearchTokenizer.tokenize(category));
+    return new Doc(id, name, category, price, image, quantity, terms);
+  }
+
+  private static void add(Map<Long, Doc> docs, TreeMap<String, Map<Long, Float>> postings, Doc doc) {
+    docs.put(doc.id(), doc);
+    Map<String, Float> weights = new HashMap<>();
+    for (String t : SearchTokenizer.tokenize(doc.name())) weights.merge(t, NAME_WEIGHT, Float::sum);
+    for (String t : SearchTokenizer.tokenize(doc.category())) weights.merge(t, CATEGORY_WEIGHT, Float::sum);
+    weights.forEach((term, w) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(doc.id(), w));
+  }
+
+  // Caller holds the write lock
+  private void remove(Long id) {
+    Doc old = docs.remove(id);
+    if (old == null) return;
+    for (String t : old.terms()) {
+      Map<Long, Float> p = postings.get(t);
+      if (p == null) continue;
+      p.remove(id);
+      if (p.isEmpty()) postings.remove(t);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.luxestore.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into lower-case, accent-folded words on anything that is not a letter or
+ * digit, so "Crème Brûlée Set (2-pack)" indexes as creme, brulee, set, 2, pack.
+ * Queries go through the same tokenizer as documents.
+ */
+final class SearchTokenizer {
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+  private SearchTokenizer() {}
+
+  static List<String> tokenize(String text) {
+    if (text == null || text.isBlank()) return List.of();
+    String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+    List<String> tokens = new ArrayList<>();
+    for (String t : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+      if (!t.isEmpty()) tokens.add(t);
+    }
+    return tokens;
+  }
+
+  /** True when the query ends mid-word, i.e. its last token should be treated as a prefix. */
+  static boolean endsInWord(String text) {
+    if (text == null || text.isEmpty()) return false;
+    return Character.isLetterOrDigit(text.charAt(text.length() - 1));
+  }
+}
@@ -0,0 +1,50 @@
+package com.luxestore.security;
+
+import com.luxestore.service.CustomUserDetailsService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Grants ROLE_ADMIN at startup to the existing accounts listed in
+ * {@code security.admin-emails}. Signup never grants it, so create the account first and
+ * restart; the role reaches the account's tokens on its next login.
+ */
+@Component
+public class AdminBootstrap {
+
+  private static final Logger log = LoggerFactory.getLogger(AdminBootstrap.class);
+
+  private static final String GRANT_SQL =
+      "INSERT INTO user_roles (user_id, roles) SELECT u.id, 'ROLE_ADMIN' FROM users u WHERE u.email = ? "
+      + "AND NOT EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.id AND r.roles = 'ROLE_ADMIN')";
+
+  private final JdbcTemplate jdbc;
+  private final CustomUserDetailsService userDetails;
+  private final List<String> adminEmails;
+
+  public AdminBootstrap(JdbcTemplate jdbc, CustomUserDetailsService userDetails,
+                        @Value("${security.admin-emails:}") List<String> adminEmails) {
+    this.jdbc = jdbc;
+    this.userDetails = userDetails;
+    this.adminEmails = adminEmails;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void grant() {
+    for (String email : adminEmails) {
+      if (email == null || email.isBlank()) continue;
+      if (jdbc.update(GRANT_SQL, email.trim()) > 0) {
+        userDetails.evict(email.trim());
+        log.info("Granted ROLE_ADMIN to {}", email.trim());
+      }
+    }
+  }
+}
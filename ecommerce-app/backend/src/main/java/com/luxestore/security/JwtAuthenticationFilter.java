@@ -0,0 +1,106 @@
+package com.luxestore.security;
+
+import com.luxestore.cache.BoundedCache;
+import com.luxestore.cache.CacheStats;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <jwt>} without touching the
+ * database: the token's subject and roles become the principal. Verified claims are cached
+ * by token hash until the token expires, so a client reusing its token pays for signature
+ * verification once. Requests without a valid token continue unauthenticated and are
+ * accepted or rejected by the authorization rules.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+  private static final String PREFIX = "Bearer ";
+
+  private final JwtUtils jwtUtils;
+  private final BoundedCache<String, VerifiedToken> verified;
+
+  public JwtAuthenticationFilter(JwtUtils jwtUtils, int cacheSize, Duration maxCacheTtl) {
+    this.jwtUtils = jwtUtils;
+    this.verified = new BoundedCache<>("jwt.verified", cacheSize, maxCacheTtl);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String header = request.getHeader("Authorization");
+    if (header != null && header.startsWith(PREFIX) && SecurityContextHolder.getContext().getAuthentication() == null) {
+      VerifiedToken token = verify(header.substring(PREFIX.length()).trim());
+      if (token != null) {
+        UsernamePasswordAuthenticationToken auth =
+            new UsernamePasswordAuthenticationToken(token.subject(), null, token.authorities());
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(auth);
+        SecurityContextHolder.setContext(context);
+      }
+    }
+    chain.doFilter(request, response);
+  }
+
+  public CacheStats cacheStats() {
+    return verified.stats();
+  }
+
+  private VerifiedToken verify(String jwt) {
+    if (jwt.isEmpty()) return null;
+    String key = hash(jwt);
+    VerifiedToken cached = verified.get(key);
+    if (cached != null) {
+      return cached.expiresAt().isAfter(Instant.now()) ? cached : null;
+    }
+    Claims claims;
+    try {
+      claims = jwtUtils.parseClaims(jwt);
+    } catch (JwtException | IllegalArgumentException e) {
+      // Invalid tokens are not cached, so garbage headers cannot churn valid entries out
+      return null;
+    }
+    if (claims.getSubject() == null || claims.getExpiration() == null) return null;
+    VerifiedToken token = new VerifiedToken(claims.getSubject(), authorities(claims), claims.getExpiration().toInstant());
+    verified.put(key, token, Duration.between(Instant.now(), token.expiresAt()));
+    return token;
+  }
+
+  private static List<GrantedAuthority> authorities(Claims claims) {
+    Object roles = claims.get(JwtUtils.ROLES_CLAIM);
+    if (!(roles instanceof Collection<?> c)) return List.of();
+    return c.stream().<GrantedAuthority>map(r -> new SimpleGrantedAuthority(r.toString())).toList();
+  }
+
+  private static String hash(String jwt) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record VerifiedToken(String subject, List<GrantedAuthority> authorities, Instant expiresAt) {}
+}
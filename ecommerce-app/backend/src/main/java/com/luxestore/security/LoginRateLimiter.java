@@ -0,0 +1,75 @@
+package com.luxestore.security;
+
+import com.luxestore.cache.BoundedCache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket throttling of login attempts, separately per client IP and per email. The
+ * email bucket slows down guessing against one account from many addresses; the IP bucket
+ * slows down one address spraying many accounts. Bucket state lives in bounded LRU caches,
+ * so a flood of distinct keys costs a fixed amount of memory.
+ */
+@Component
+public class LoginRateLimiter {
+
+  private final BoundedCache<String, TokenBucket> byIp;
+  private final BoundedCache<String, TokenBucket> byEmail;
+  private final int ipCapacity;
+  private final double ipRefillPerNano;
+  private final int emailCapacity;
+  private final double emailRefillPerNano;
+
+  public LoginRateLimiter(@Value("${security.login-rate.ip.capacity:20}") int ipCapacity,
+                          @Value("${security.login-rate.ip.refill-per-minute:20}") int ipRefillPerMinute,
+                          @Value("${security.login-rate.email.capacity:5}") int emailCapacity,
+                          @Value("${security.login-rate.email.refill-per-minute:5}") int emailRefillPerMinute,
+                          @Value("${security.login-rate.max-tracked-keys:100000}") int maxKeys) {
+    this.ipCapacity = ipCapacity;
+    this.ipRefillPerNano = ipRefillPerMinute / (double) Duration.ofMinutes(1).toNanos();
+    this.emailCapacity = emailCapacity;
+    this.emailRefillPerNano = emailRefillPerMinute / (double) Duration.ofMinutes(1).toNanos();
+    // Buckets are recreated full once this window has passed since they were created; as the
+    // window is longer than a full refill that allows at most one extra burst per window.
+    Duration idle = Duration.ofMinutes(Math.max(1, Math.max(
+        ipCapacity / Math.max(1, ipRefillPerMinute), emailCapacity / Math.max(1, emailRefillPerMinute)) + 1));
+    this.byIp = new BoundedCache<>("login.ip", maxKeys, idle);
+    this.byEmail = new BoundedCache<>("login.email", maxKeys, idle);
+  }
+
+  /** Takes one token from both buckets; false means the attempt should be refused with 429. */
+  public boolean tryAcquire(String ip, String email) {
+    TokenBucket ipBucket = byIp.computeIfAbsent(ip == null ? "" : ip, k -> new TokenBucket(ipCapacity, ipRefillPerNano));
+    if (!ipBucket.tryConsume()) return false;
+    if (email == null) return true;
+    TokenBucket emailBucket = byEmail.computeIfAbsent(email.trim().toLowerCase(),
+        k -> new TokenBucket(emailCapacity, emailRefillPerNano));
+    return emailBucket.tryConsume();
+  }
+
+  static final class TokenBucket {
+    private final int capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, double refillPerNano) {
+      this.capacity = capacity;
+      this.refillPerNano = refillPerNano;
+      this.tokens = capacity;
+      this.lastRefill = System.nanoTime();
+    }
+
+    synchronized boolean tryConsume() {
+      long now = System.nanoTime();
+      tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+      lastRefill = now;
+      if (tokens < 1) return false;
+      tokens -= 1;
+      return true;
+    }
+  }
+}
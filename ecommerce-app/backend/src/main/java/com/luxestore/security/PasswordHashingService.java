@@ -0,0 +1,76 @@
+package com.luxestore.security;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a small dedicated pool so a burst of logins cannot occupy every Tomcat
+ * thread with CPU-bound hashing. The queue is bounded; once it is full new work is
+ * rejected with {@link RejectedExecutionException} instead of piling up, and callers
+ * should answer 503 so clients back off.
+ */
+@Service
+public class PasswordHashingService {
+
+  private final PasswordEncoder encoder;
+  private final ThreadPoolExecutor executor;
+  private final Duration timeout;
+
+  public PasswordHashingService(PasswordEncoder encoder,
+                                @Value("${security.hashing.threads:0}") int threads,
+                                @Value("${security.hashing.queue-capacity:64}") int queueCapacity,
+                                @Value("${security.hashing.timeout:5s}") Duration timeout) {
+    this.encoder = encoder;
+    this.timeout = timeout;
+    int size = threads > 0 ? threads : Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    AtomicInteger seq = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        r -> {
+          Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /** Completes exceptionally with a TimeoutException if the hash is not done within the deadline. */
+  public CompletableFuture<String> encode(CharSequence raw) {
+    return CompletableFuture.supplyAsync(() -> encoder.encode(raw), executor)
+        .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  public CompletableFuture<Boolean> matches(CharSequence raw, String hash) {
+    return CompletableFuture.supplyAsync(() -> encoder.matches(raw, hash), executor)
+        .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** True when the stored hash was made with a lower cost than the configured one. */
+  public boolean needsRehash(String hash) {
+    return encoder.upgradeEncoding(hash);
+  }
+
+  public int queued() {
+    return executor.getQueue().size();
+  }
+
+  public int active() {
+    return executor.getActiveCount();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
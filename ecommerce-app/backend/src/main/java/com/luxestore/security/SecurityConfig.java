@@ -1,21 +1,30 @@
 package com.luxestore.security;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
+import java.time.Duration;
+
 @Configuration
 public class SecurityConfig {
 
+    // Raising the strength takes effect for existing users on their next login (rehash-on-login)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -24,13 +33,38 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtUtils jwtUtils,
+                                                           @Value("${security.jwt.cache-size:10000}") int cacheSize,
+                                                           @Value("${security.jwt.cache-ttl:1h}") Duration cacheTtl) {
+        return new JwtAuthenticationFilter(jwtUtils, cacheSize, cacheTtl);
+    }
+
+    // Keep Boot from also registering the JWT filter as a servlet filter outside the security chain
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtFilter) throws Exception {
         http.csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(new AntPathRequestMatcher("/api/auth/signup"),
                                  new AntPathRequestMatcher("/api/auth/login")).permitAll()
-                //.requestMatchers(new AntPathRequestMatcher("/api/admin/**")).hasRole("ADMIN")
+                // Bulk catalog import/export and other operator endpoints; see AdminBootstrap
+                .requestMatchers(new AntPathRequestMatcher("/api/admin/**")).hasRole("ADMIN")
+                // Store-wide sales figures; must precede the /api/orders/** rule below
+                .requestMatchers(new AntPathRequestMatcher("/api/orders/analytics/**")).hasRole("ADMIN")
                 .requestMatchers(new AntPathRequestMatcher("/h2-console/**")).permitAll()
+                // Scrape and liveness only; the other actuator endpoints need a token
+                .requestMatchers(new AntPathRequestMatcher("/actuator/health"),
+                                 new AntPathRequestMatcher("/actuator/prometheus")).permitAll()
+                // Holding stock is a write; anonymous clients could otherwise tie up a SKU's whole stock
+                .requestMatchers(new AntPathRequestMatcher("/api/products/*/reservations"),
+                                 new AntPathRequestMatcher("/api/products/reservations/**")).authenticated()
                 .requestMatchers(new AntPathRequestMatcher("/api/products/**")).permitAll()
                 .requestMatchers(new AntPathRequestMatcher("/api/cart/**")).permitAll()
                 .requestMatchers(new AntPathRequestMatcher("/api/wishlist/**")).permitAll()
@@ -41,7 +75,9 @@ public class SecurityConfig {
                 .anyRequest().authenticated()
             )
             .headers(headers -> headers.frameOptions().disable())
-            .httpBasic();
+            // Stateless bearer tokens replace HTTP Basic, which ran BCrypt and a user query per request
+            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
         return http.build();
     }
-}
\ No newline at end of file
+}
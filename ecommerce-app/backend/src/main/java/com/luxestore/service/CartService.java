@@ -0,0 +1,196 @@
+package com.luxestore.service;
+
+import com.luxestore.dto.CartLine;
+import com.luxestore.dto.CartLineRow;
+import com.luxestore.cache.SingleFlight;
+import com.luxestore.dto.CartView;
+import com.luxestore.event.CartChangedEvent;
+import com.luxestore.event.ProductChangedEvent;
+import com.luxestore.model.CartItem;
+import com.luxestore.repository.CartRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cart writes and reads. Reads are coalesced per user: duplicate requests a client fires
+ * at once (double clicks, retries, several tabs) share one query. Every write publishes a
+ * {@link CartChangedEvent}, after which reads start afresh instead of joining one that may
+ * predate the write.
+ */
+@Service
+public class CartService {
+
+  /**
+   * Insert-or-increment on the (user_id, product_id) unique key in one statement. Standard
+   * SQL MERGE, understood by both H2 and PostgreSQL 15+.
+   */
+  private static final String UPSERT_SQL =
+      "MERGE INTO cart_item c "
+      + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS INT), CAST(? AS VARCHAR(255)))) "
+      + "AS s (user_id, product_id, quantity, imageurl) "
+      + "ON c.user_id = s.user_id AND c.product_id = s.product_id "
+      + "WHEN MATCHED THEN UPDATE SET quantity = c.quantity + s.quantity, imageurl = COALESCE(s.imageurl, c.imageurl) "
+      + "WHEN NOT MATCHED THEN INSERT (user_id, product_id, quantity, imageurl) "
+      + "VALUES (s.user_id, s.product_id, s.quantity, s.imageurl)";
+
+  private final CartRepository repo;
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final ApplicationEventPublisher events;
+  private final SingleFlight<Long, CartView> viewLoads;
+  private final SingleFlight<Long, List<CartItem>> itemLoads;
+
+  public CartService(CartRepository repo, JdbcTemplate jdbc, TransactionTemplate tx,
+                     ApplicationEventPublisher events, MeterRegistry meters) {
+    this.repo = repo;
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.events = events;
+    this.viewLoads = new SingleFlight<>("cart.view", meters);
+    this.itemLoads = new SingleFlight<>("cart.items", meters);
+  }
+
+  /**
+   * Adds quantity to the user's line for a product, creating it if needed. Two concurrent
+   * adds that both miss can still race on the insert; the loser hits the unique key and
+   * retries, at which point it matches and increments.
+   */
+  public CartItem add(CartItem ci) {
+    validate(ci.getProductId(), ci.getQuantity());
+    if (ci.getUserId() == null) throw new IllegalArgumentException("userId is required");
+    Object[] args = { ci.getUserId(), ci.getProductId(), ci.getQuantity(), ci.getImageurl() };
+    try {
+      jdbc.update(UPSERT_SQL, args);
+    } catch (DuplicateKeyException e) {
+      jdbc.update(UPSERT_SQL, args);
+    }
+    events.publishEvent(new CartChangedEvent(ci.getUserId()));
+    return repo.findByUserIdAndProductId(ci.getUserId(), ci.getProductId()).orElseThrow();
+  }
+
+  /**
+   * Merges many lines into the user's cart with one JDBC batch in one transaction, e.g. a
+   * guest cart at login. Lines for the same product are summed first and applied in
+   * product id order so concurrent merges lock rows in the same order.
+   */
+  public int addAll(Long userId, List<CartItem> items) {
+    Map<Long, CartItem> merged = new TreeMap<>();
+    for (CartItem ci : items) {
+      validate(ci.getProductId(), ci.getQuantity());
+      merged.merge(ci.getProductId(), new CartItem(userId, ci.getProductId(), ci.getQuantity()), (a, b) -> {
+        a.setQuantity(a.getQuantity() + b.getQuantity());
+        return a;
+      });
+      if (ci.getImageurl() != null) merged.get(ci.getProductId()).setImageurl(ci.getImageurl());
+    }
+    if (merged.isEmpty()) return 0;
+
+    List<Object[]> batch = new ArrayList<>(merged.size());
+    for (CartItem ci : merged.values()) {
+      batch.add(new Object[] { userId, ci.getProductId(), ci.getQuantity(), ci.getImageurl() });
+    }
+    try {
+      tx.executeWithoutResult(status -> jdbc.batchUpdate(UPSERT_SQL, batch));
+    } catch (DuplicateKeyException e) {
+      tx.executeWithoutResult(status -> jdbc.batchUpdate(UPSERT_SQL, batch));
+    }
+    events.publishEvent(new CartChangedEvent(userId));
+    return merged.size();
+  }
+
+  // Sets the quantity on every cart line for the product, whoever's cart it is in
+  public int updateQuantity(Long productId, int quantity) {
+    int updated = repo.updateQuantityById(productId, quantity);
+    events.publishEvent(CartChangedEvent.anyUser());
+    return updated;
+  }
+
+  public void remove(Long userId, Long productId) {
+    repo.deleteByUserIdAndProductId(userId, productId);
+    events.publishEvent(new CartChangedEvent(userId));
+  }
+
+  /** The user's raw cart rows, shared with concurrent callers; treat as read-only. */
+  public List<CartItem> items(Long userId) {
+    return itemLoads.execute(userId, () -> List.copyOf(repo.findByUserId(userId)));
+  }
+
+  private static void validate(Long productId, int quantity) {
+    if (productId == null) throw new IllegalArgumentException("productId is required");
+    if (quantity <= 0) throw new IllegalArgumentException("quantity must be positive");
+  }
+
+  /**
+   * Cart lines joined to the catalog with computed totals. The ETag is a digest of every
+   * value that ends up in the response, so it changes whenever the cart or the price or
+   * availability of anything in it changes.
+   */
+  public CartView view(Long userId) {
+    return viewLoads.execute(userId, () -> load(userId));
+  }
+
+  private CartView load(Long userId) {
+    List<CartLineRow> rows = repo.findLinesWithProducts(userId);
+    List<CartLine> lines = new ArrayList<>(rows.size());
+    MessageDigest digest = sha256();
+    int itemCount = 0;
+    double total = 0;
+    boolean allAvailable = true;
+    for (CartLineRow r : rows) {
+      boolean exists = r.price() != null;
+      double price = exists ? r.price() : 0;
+      boolean available = exists && r.stock() != null && r.stock() >= r.quantity();
+      double lineTotal = price * r.quantity();
+      lines.add(new CartLine(r.id(), r.productId(), r.name(), r.category(), r.image(), price, r.quantity(), available, lineTotal));
+      itemCount += r.quantity();
+      total += lineTotal;
+      allAvailable &= available;
+      String key = r.id() + "|" + r.productId() + "|" + r.quantity() + "|" + r.name() + "|" + r.category()
+          + "|" + r.image() + "|" + price + "|" + available + "\n";
+      digest.update(key.getBytes(StandardCharsets.UTF_8));
+    }
+    String etag = "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    return new CartView(userId, List.copyOf(lines), itemCount, total, allAvailable, etag);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCartChanged(CartChangedEvent event) {
+    if (event.userId() == null) {
+      viewLoads.forgetAll();
+      itemLoads.forgetAll();
+    } else {
+      viewLoads.forget(event.userId());
+      itemLoads.forget(event.userId());
+    }
+  }
+
+  // Views carry live prices and stock, so any product write may change any of them
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    viewLoads.forgetAll();
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.luxestore.service;
+
+import com.luxestore.event.CartChangedEvent;
+import com.luxestore.event.OrderPlaced;
+import com.luxestore.model.CartItem;
+import com.luxestore.model.OrderEntity;
+import com.luxestore.model.OrderLine;
+import com.luxestore.model.Product;
+import com.luxestore.outbox.OutboxPublisher;
+import com.luxestore.repository.CartRepository;
+import com.luxestore.repository.OrderLineRepository;
+import com.luxestore.repository.OrderRepository;
+import com.luxestore.repository.ProductRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a user's server-side cart into an order in one transaction: the cart and its
+ * products are read with one query each, prices come from the catalog rather than the
+ * client, all stock is taken with a single JDBC batch, and the cart is cleared. Any
+ * failure, including one short line, rolls the whole checkout back. Follow-up work hangs
+ * off the {@link OrderPlaced} outbox event written in the same transaction.
+ */
+@Service
+public class CheckoutService {
+
+  private final CartRepository cartRepo;
+  private final ProductRepository productRepo;
+  private final OrderRepository orderRepo;
+  private final OrderLineRepository lineRepo;
+  private final StockReservationService stock;
+  private final OutboxPublisher outbox;
+  private final MeterRegistry meters;
+  private final ApplicationEventPublisher events;
+
+  public CheckoutService(CartRepository cartRepo, ProductRepository productRepo, OrderRepository orderRepo,
+                         OrderLineRepository lineRepo, StockReservationService stock, OutboxPublisher outbox,
+                         MeterRegistry meters, ApplicationEventPublisher events) {
+    this.cartRepo = cartRepo;
+    this.productRepo = productRepo;
+    this.orderRepo = orderRepo;
+    this.lineRepo = lineRepo;
+    this.stock = stock;
+    this.outbox = outbox;
+    this.meters = meters;
+    this.events = events;
+  }
+
+  @Transactional
+  public OrderEntity checkout(Long userId) {
+    List<CartItem> cart = cartRepo.findByUserId(userId);
+    if (cart.isEmpty()) throw new IllegalStateException("Cart is empty");
+
+    // Several rows for the same product are folded into one line
+    Map<Long, Integer> quantities = new LinkedHashMap<>();
+    for (CartItem ci : cart) {
+      if (ci.getQuantity() <= 0) continue;
+      quantities.merge(ci.getProductId(), ci.getQuantity(), Integer::sum);
+    }
+    if (quantities.isEmpty()) throw new IllegalStateException("Cart is empty");
+
+    Map<Long, Product> products = productRepo.findAllById(quantities.keySet()).stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    List<OrderLine> lines = new ArrayList<>(quantities.size());
+    double total = 0;
+    for (Map.Entry<Long, Integer> e : quantities.entrySet()) {
+      Product p = products.get(e.getKey());
+      if (p == null) throw new NoSuchElementException("Product " + e.getKey() + " no longer exists");
+      if (p.getQuantity() < e.getValue()) {
+        meters.counter("stock.conflicts", "operation", "checkout", "source", "precheck").increment();
+        throw new InsufficientStockException(p.getId());
+      }
+      total += p.getPrice() * e.getValue();
+      lines.add(new OrderLine(null, p.getId(), p.getName(), p.getCategory(), e.getValue(), p.getPrice()));
+    }
+
+    // The pre-check above is only a fast fail; the conditional batch update is what
+    // actually guards against a concurrent checkout taking the same units.
+    stock.decrementAll(quantities);
+
+    OrderEntity order = orderRepo.save(new OrderEntity(userId, new Date(), total, null));
+    lines.forEach(l -> l.setOrderId(order.getId()));
+    lineRepo.saveAll(lines);
+    cartRepo.deleteByUserId(userId);
+    events.publishEvent(new CartChangedEvent(userId));
+    outbox.publish(OrderPlaced.TYPE, userId, OrderPlaced.of(order, lines));
+    return order;
+  }
+}
@@ -0,0 +1,110 @@
+package com.luxestore.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, fields optionally double-quoted,
+ * {@code ""} inside quotes for a literal quote, line breaks allowed inside quotes, CRLF or
+ * LF line endings. Holds one record in memory at a time.
+ */
+final class CsvReader {
+
+  private final Reader in;
+  private int peeked = -2;
+  private long line = 1;
+  private long recordLine;
+
+  CsvReader(Reader in) {
+    this.in = in;
+  }
+
+  /** Line number the record last returned by {@link #next()} started on. */
+  long recordLine() {
+    return recordLine;
+  }
+
+  /**
+   * The next record, or null at end of input. Blank lines are skipped.
+   *
+   * @throws EOFException if the input ends inside a quoted field
+   */
+  List<String> next() throws IOException {
+    // Skip blank lines first so recordLine() is where the record itself starts
+    for (int c = peek(); c == '\r' || c == '\n'; c = peek()) {
+      read();
+      if (c == '\n' || peek() != '\n') line++;
+    }
+    recordLine = line;
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    boolean any = false;
+    while (true) {
+      int c = read();
+      if (c == -1) {
+        if (quoted) throw new EOFException("unterminated quoted field");
+        if (!any && field.isEmpty() && fields.isEmpty()) return null;
+        fields.add(field.toString());
+        return fields;
+      }
+      if (quoted) {
+        if (c == '"') {
+          if (peek() == '"') {
+            read();
+            field.append('"');
+          } else {
+            quoted = false;
+          }
+        } else {
+          if (c == '\n') line++;
+          field.append((char) c);
+        }
+        continue;
+      }
+      if (c == '\r' || c == '\n') {
+        if (c == '\r' && peek() == '\n') read();
+        line++;
+        fields.add(field.toString());
+        return fields;
+      }
+      any = true;
+      if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '"' && field.isEmpty()) {
+        quoted = true;
+      } else {
+        field.append((char) c);
+      }
+    }
+  }
+
+  private int read() throws IOException {
+    if (peeked != -2) {
+      int c = peeked;
+      peeked = -2;
+      return c;
+    }
+    return in.read();
+  }
+
+  private int peek() throws IOException {
+    if (peeked == -2) peeked = in.read();
+    return peeked;
+  }
+
+  /** Quotes a value for output when it contains a separator, quote or line break. */
+  static String escape(String value) {
+    if (value == null) return "";
+    boolean needsQuotes = false;
+    for (int i = 0; i < value.length() && !needsQuotes; i++) {
+      char c = value.charAt(i);
+      needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    return needsQuotes ? '"' + value.replace("\"", "\"\"") + '"' : value;
+  }
+}
@@ -1,32 +1,70 @@
 package com.luxestore.service;
 
+import com.luxestore.cache.BoundedCache;
+import com.luxestore.cache.CacheStats;
 import com.luxestore.model.User;
 import com.luxestore.repository.UserRepository;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
-import java.util.stream.Collectors;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+/**
+ * Caches the principal of each user by email so repeated authentications skip the users and
+ * user_roles join. Login reads through {@link #findPrincipal} as well. Entries expire after a
+ * TTL and are evicted explicitly by every path that changes a user row.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository repo;
+    private final BoundedCache<String, Principal> principals;
 
-    public CustomUserDetailsService(UserRepository repo) {
+    public CustomUserDetailsService(UserRepository repo,
+                                    @Value("${security.user-cache.max-size:10000}") int maxSize,
+                                    @Value("${security.user-cache.ttl:10m}") Duration ttl) {
         this.repo = repo;
+        this.principals = new BoundedCache<>("users.principals", maxSize, ttl);
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = repo.findByEmail(email).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        Principal p = findPrincipal(email).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        // A fresh UserDetails per call: the authentication manager erases credentials on the
+        // instance it is given, which must not be the cached one.
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                user.getRoles().stream().map(role -> new SimpleGrantedAuthority(role)).collect(Collectors.toList())
+                p.email(),
+                p.passwordHash(),
+                p.roles().stream().map(role -> new SimpleGrantedAuthority(role)).toList()
         );
     }
-}
 
+    /** The cached principal for this email, loading it on a miss. */
+    public Optional<Principal> findPrincipal(String email) {
+        if (email == null) return Optional.empty();
+        return Optional.ofNullable(principals.getOrLoad(email, this::load));
+    }
+
+    public void evict(String email) {
+        if (email != null) principals.invalidate(email);
+    }
+
+    public CacheStats cacheStats() {
+        return principals.stats();
+    }
+
+    private Principal load(String email) {
+        return repo.findWithRolesByEmail(email)
+                .map(u -> new Principal(u.getId(), u.getEmail(), u.getName(), u.getPassword(),
+                        u.getRoles() == null ? List.of() : List.copyOf(u.getRoles())))
+                .orElse(null);
+    }
+
+    public record Principal(Long id, String email, String name, String passwordHash, List<String> roles) {}
+}
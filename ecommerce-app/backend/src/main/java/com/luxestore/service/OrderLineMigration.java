@@ -0,0 +1,85 @@
+package com.luxestore.service;
+
+import com.luxestore.model.OrderEntity;
+import com.luxestore.repository.OrderLineRepository;
+import com.luxestore.repository.OrderRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves items of pre-existing orders out of the {@code itemsJson} LOB into
+ * {@code order_lines}. Runs once at startup in small transactions; each migrated order has
+ * its LOB cleared, so the job is idempotent and resumes where it stopped. An order whose
+ * items cannot all be turned into lines keeps its LOB and is reported instead.
+ */
+@Component
+public class OrderLineMigration {
+
+  private static final Logger log = LoggerFactory.getLogger(OrderLineMigration.class);
+
+  private final OrderRepository orderRepo;
+  private final OrderLineRepository lineRepo;
+  private final OrderService orders;
+  private final TransactionTemplate tx;
+  private final boolean enabled;
+  private final int batchSize;
+
+  public OrderLineMigration(OrderRepository orderRepo, OrderLineRepository lineRepo, OrderService orders,
+                            TransactionTemplate tx,
+                            @Value("${orders.items-json-migration.enabled:true}") boolean enabled,
+                            @Value("${orders.items-json-migration.batch-size:200}") int batchSize) {
+    this.orderRepo = orderRepo;
+    this.lineRepo = lineRepo;
+    this.orders = orders;
+    this.tx = tx;
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+  }
+
+  // Before anything that reads order lines at startup, such as the sales rollup backfill
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void migrate() {
+    if (!enabled) return;
+    long afterId = 0;
+    int migrated = 0;
+    int failed = 0;
+    while (true) {
+      List<Long> ids = orderRepo.findIdsWithItemsJson(afterId, PageRequest.of(0, batchSize));
+      if (ids.isEmpty()) break;
+      for (Long id : ids) {
+        try {
+          tx.executeWithoutResult(status -> migrateOne(id));
+          migrated++;
+        } catch (RuntimeException e) {
+          // Leave the LOB in place so the order can be fixed by hand and picked up next start
+          failed++;
+          log.warn("Could not migrate itemsJson of order {}: {}", id, e.getMessage());
+        }
+      }
+      afterId = ids.get(ids.size() - 1);
+    }
+    if (migrated > 0 || failed > 0) {
+      log.info("Migrated itemsJson of {} orders to order_lines ({} failed)", migrated, failed);
+    }
+  }
+
+  private void migrateOne(Long orderId) {
+    OrderEntity order = orderRepo.findById(orderId).orElseThrow();
+    if (!lineRepo.existsByOrderId(orderId)) {
+      lineRepo.saveAll(orders.parseLines(orderId, order.getItemsJson(), true));
+    }
+    order.setItemsJson(null);
+  }
+}
@@ -0,0 +1,236 @@
+package com.luxestore.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luxestore.dto.OrderLineView;
+import com.luxestore.dto.OrderPage;
+import com.luxestore.dto.OrderQuery;
+import com.luxestore.dto.OrderSummary;
+import com.luxestore.dto.OrderView;
+import com.luxestore.event.OrderPlaced;
+import com.luxestore.model.OrderEntity;
+import com.luxestore.model.OrderLine;
+import com.luxestore.model.Product;
+import com.luxestore.outbox.OutboxPublisher;
+import com.luxestore.repository.OrderLineRepository;
+import com.luxestore.repository.OrderRepository;
+import com.luxestore.repository.ProductRepository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Order placement and history on top of the normalized {@code order_lines} table. History
+ * reads select order headers and lines separately and never touch the legacy
+ * {@code itemsJson} LOB; analytics are SQL aggregations over the lines.
+ */
+@Service
+public class OrderService {
+
+  private static final String STREAM_SQL =
+      "SELECT o.id, o.order_date, o.total, l.product_id, l.product_name, l.quantity, l.unit_price "
+      + "FROM orders o LEFT JOIN order_lines l ON l.order_id = o.id "
+      + "WHERE o.user_id = ? ORDER BY o.order_date DESC, o.id DESC, l.id";
+
+  private final OrderRepository orderRepo;
+  private final OrderLineRepository lineRepo;
+  private final ProductRepository productRepo;
+  private final OutboxPublisher outbox;
+  private final ObjectMapper mapper;
+  private final JdbcTemplate streamingJdbc;
+
+  public OrderService(OrderRepository orderRepo, OrderLineRepository lineRepo, ProductRepository productRepo,
+                      OutboxPublisher outbox, ObjectMapper mapper, DataSource dataSource) {
+    this.orderRepo = orderRepo;
+    this.lineRepo = lineRepo;
+    this.productRepo = productRepo;
+    this.outbox = outbox;
+    this.mapper = mapper;
+    this.streamingJdbc = new JdbcTemplate(dataSource);
+    this.streamingJdbc.setFetchSize(500);
+  }
+
+  /**
+   * Legacy client-built order: the posted itemsJson is split into order lines and not
+   * stored as a LOB.
+   */
+  @Transactional
+  public OrderEntity place(OrderEntity order) {
+    String itemsJson = order.getItemsJson();
+    order.setOrderDate(new Date());
+    order.setItemsJson(null);
+    OrderEntity saved = orderRepo.save(order);
+    List<OrderLine> lines = parseLines(saved.getId(), itemsJson);
+    lineRepo.saveAll(lines);
+    outbox.publish(OrderPlaced.TYPE, saved.getUserId(), OrderPlaced.of(saved, lines));
+    return saved;
+  }
+
+  @Transactional(readOnly = true)
+  public List<OrderView> history(Long userId) {
+    List<OrderSummary> orders = orderRepo.findSummariesByUserId(userId);
+    return withLines(orders);
+  }
+
+  /** One page of the user's orders, headers only; see {@link OrderRepository#findPage}. */
+  @Transactional(readOnly = true)
+  public OrderPage page(OrderQuery query) {
+    return orderRepo.findPage(query);
+  }
+
+  /** A single order with its lines, if it exists and belongs to the user. */
+  @Transactional(readOnly = true)
+  public Optional<OrderView> find(Long userId, Long orderId) {
+    return orderRepo.findSummary(userId, orderId).map(o -> withLines(List.of(o)).get(0));
+  }
+
+  /** Attaches lines to the given headers using one query for all of them. */
+  @Transactional(readOnly = true)
+  public List<OrderView> withLines(List<OrderSummary> orders) {
+    if (orders.isEmpty()) return List.of();
+    Map<Long, List<OrderLineView>> lines = lineRepo
+        .findViewsByOrderIds(orders.stream().map(OrderSummary::id).toList())
+        .stream()
+        .collect(Collectors.groupingBy(OrderLineView::orderId));
+    return orders.stream()
+        .map(o -> OrderView.of(o, lines.getOrDefault(o.id(), List.of())))
+        .toList();
+  }
+
+  /**
+   * Writes the user's order history as newline-delimited JSON, one order per line, straight
+   * from a forward-only cursor. Memory use is one order regardless of history length.
+   */
+  public void streamHistory(Long userId, OutputStream out) throws IOException {
+    // No root value separator, or Jackson starts every line after the first with a space
+    JsonGenerator gen = mapper.getFactory().createGenerator(out).setRootValueSeparator(null);
+    OrderStreamWriter writer = new OrderStreamWriter(gen);
+    try {
+      streamingJdbc.query(STREAM_SQL, writer::row, userId);
+      writer.finish();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    gen.flush();
+  }
+
+  /**
+   * Parses legacy itemsJson entries ({@code productId}, {@code quantity}, {@code price})
+   * into lines, filling name and category from the catalog with one batched lookup. Entries
+   * without a productId are skipped.
+   */
+  List<OrderLine> parseLines(Long orderId, String itemsJson) {
+    return parseLines(orderId, itemsJson, false);
+  }
+
+  /**
+   * As {@link #parseLines(Long, String)}; with {@code strict}, an entry without a productId
+   * fails the parse instead of being dropped, so every item is accounted for.
+   */
+  List<OrderLine> parseLines(Long orderId, String itemsJson, boolean strict) {
+    if (itemsJson == null || itemsJson.isBlank()) return List.of();
+    JsonNode items;
+    try {
+      items = mapper.readTree(itemsJson);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("itemsJson is not valid JSON", e);
+    }
+    if (!items.isArray()) throw new IllegalArgumentException("itemsJson must be a JSON array");
+
+    Set<Long> ids = new HashSet<>();
+    int identified = 0;
+    for (JsonNode it : items) {
+      if (!it.hasNonNull("productId")) continue;
+      ids.add(it.get("productId").asLong());
+      identified++;
+    }
+    if (strict && identified != items.size()) {
+      throw new IllegalArgumentException("itemsJson has " + items.size() + " items but only "
+          + identified + " carry a productId");
+    }
+    Map<Long, Product> products = productRepo.findAllById(ids).stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    List<OrderLine> lines = new ArrayList<>(items.size());
+    for (JsonNode it : items) {
+      if (!it.hasNonNull("productId")) continue;
+      Long productId = it.get("productId").asLong();
+      Product p = products.get(productId);
+      String name = it.hasNonNull("name") ? it.get("name").asText() : (p == null ? null : p.getName());
+      double price = it.hasNonNull("price") ? it.get("price").asDouble() : (p == null ? 0 : p.getPrice());
+      lines.add(new OrderLine(orderId, productId, name, p == null ? null : p.getCategory(),
+          it.path("quantity").asInt(1), price));
+    }
+    return lines;
+  }
+
+  /** Groups joined header/line rows back into one JSON object per order. */
+  private static final class OrderStreamWriter {
+    private final JsonGenerator gen;
+    private Long current;
+
+    OrderStreamWriter(JsonGenerator gen) {
+      this.gen = gen;
+    }
+
+    void row(ResultSet rs) throws SQLException {
+      try {
+        long id = rs.getLong(1);
+        if (current == null || current != id) {
+          finish();
+          current = id;
+          gen.writeStartObject();
+          gen.writeNumberField("id", id);
+          Timestamp date = rs.getTimestamp(2);
+          if (date == null) gen.writeNullField("orderDate");
+          else gen.writeNumberField("orderDate", date.getTime());
+          gen.writeNumberField("total", rs.getDouble(3));
+          gen.writeArrayFieldStart("items");
+        }
+        long productId = rs.getLong(4);
+        if (!rs.wasNull()) {
+          gen.writeStartObject();
+          gen.writeNumberField("productId", productId);
+          gen.writeStringField("name", rs.getString(5));
+          gen.writeNumberField("quantity", rs.getInt(6));
+          gen.writeNumberField("price", rs.getDouble(7));
+          gen.writeEndObject();
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    void finish() {
+      if (current == null) return;
+      try {
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+        gen.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      current = null;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.luxestore.service;
+
+import com.luxestore.dto.CartLine;
+import com.luxestore.dto.CartView;
+import com.luxestore.model.OrderEntity;
+import com.luxestore.payment.PaymentGateway;
+import com.luxestore.payment.PaymentIntentResult;
+import com.luxestore.payment.PaymentRequest;
+import com.luxestore.repository.OrderRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates payment intents whose amount and idempotency key come from server-side state.
+ * A cart intent is keyed by the cart's content digest, so a client retry, a double click
+ * or a second tab gets the same intent back as long as the cart is unchanged; an order
+ * intent is keyed by the order id.
+ */
+@Service
+public class PaymentService {
+
+  private final PaymentGateway gateway;
+  private final CartService carts;
+  private final OrderRepository orderRepo;
+  private final String currency;
+
+  public PaymentService(PaymentGateway gateway, CartService carts, OrderRepository orderRepo,
+                        @Value("${payment.currency:usd}") String currency) {
+    this.gateway = gateway;
+    this.carts = carts;
+    this.orderRepo = orderRepo;
+    this.currency = currency;
+  }
+
+  public CompletableFuture<PaymentIntentResult> forCart(Long userId) {
+    CartView cart = carts.view(userId);
+    if (cart.lines().isEmpty()) throw new IllegalStateException("Cart is empty");
+    if (!cart.allAvailable()) throw new InsufficientStockException(firstUnavailable(cart));
+    String key = "cart-" + userId + "-" + cart.etag().replace("\"", "");
+    return gateway.createIntent(new PaymentRequest(minorUnits(cart.total()), currency, key,
+        Map.of("userId", userId.toString())));
+  }
+
+  public CompletableFuture<PaymentIntentResult> forOrder(Long orderId) {
+    OrderEntity order = orderRepo.findById(orderId)
+        .orElseThrow(() -> new NoSuchElementException("Order " + orderId + " not found"));
+    return gateway.createIntent(new PaymentRequest(minorUnits(order.getTotal()), currency, "order-" + orderId,
+        Map.of("orderId", orderId.toString(), "userId", String.valueOf(order.getUserId()))));
+  }
+
+  /** Client-supplied amount; only idempotent if the client sends its own key. */
+  public CompletableFuture<PaymentIntentResult> forAmount(long amount, String idempotencyKey) {
+    return gateway.createIntent(new PaymentRequest(amount, currency, idempotencyKey, Map.of()));
+  }
+
+  private static long minorUnits(double amount) {
+    return Math.round(amount * 100);
+  }
+
+  private static Long firstUnavailable(CartView cart) {
+    return cart.lines().stream().filter(l -> !l.available()).findFirst().map(CartLine::productId).orElse(null);
+  }
+}
@@ -0,0 +1,105 @@
+package com.luxestore.service;
+
+import com.luxestore.cache.BoundedCache;
+import com.luxestore.cache.CacheStats;
+import com.luxestore.cache.SingleFlight;
+import com.luxestore.event.ProductChangedEvent;
+import com.luxestore.model.Product;
+import com.luxestore.repository.ProductRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Read-through cache in front of product reads. Entries are detached entities and the
+ * cached lists are immutable; callers must treat them as read-only. Every product write
+ * publishes a {@link ProductChangedEvent}, which drops the affected entries after commit
+ * and then moves the catalog to a new {@link Revision}.
+ *
+ * <p>Misses go through a {@link SingleFlight}, so a burst of requests for a key that just
+ * expired, such as the full catalog or a trending product, runs one query rather than one
+ * per request.
+ */
+@Service
+public class ProductCatalogService {
+
+  private static final String ALL_KEY = "*";
+  private static final String CATEGORY_PREFIX = "category:";
+
+  private final ProductRepository repo;
+  private final BoundedCache<Long, Optional<Product>> byId;
+  private final BoundedCache<String, List<Product>> lists;
+  private final SingleFlight<Long, Optional<Product>> byIdLoads;
+  private final SingleFlight<String, List<Product>> listLoads;
+  // The epoch keeps a restarted instance from handing out revision tags it issued before
+  private final AtomicReference<Revision> revision = new AtomicReference<>(
+      new Revision(Long.toString(System.currentTimeMillis(), 36), 0, Instant.now()));
+
+  public ProductCatalogService(ProductRepository repo,
+                               @Value("${catalog.cache.max-products:10000}") int maxProducts,
+                               @Value("${catalog.cache.max-lists:256}") int maxLists,
+                               @Value("${catalog.cache.ttl:5m}") Duration ttl,
+                               MeterRegistry meters) {
+    this.repo = repo;
+    this.byId = new BoundedCache<>("products.byId", maxProducts, ttl);
+    this.lists = new BoundedCache<>("products.lists", maxLists, ttl);
+    this.byIdLoads = new SingleFlight<>("products.byId", meters);
+    this.listLoads = new SingleFlight<>("products.lists", meters);
+  }
+
+  public Optional<Product> findById(Long id) {
+    return byId.getOrLoad(id, k -> byIdLoads.execute(k, () -> repo.findById(k)));
+  }
+
+  public List<Product> findAll() {
+    return lists.getOrLoad(ALL_KEY, k -> listLoads.execute(k, () -> List.copyOf(repo.findAll())));
+  }
+
+  public List<Product> findByCategory(String category) {
+    return lists.getOrLoad(CATEGORY_PREFIX + category,
+        k -> listLoads.execute(k, () -> List.copyOf(repo.findByCategory(category))));
+  }
+
+  /**
+   * The catalog's current revision. Read it before loading the data it describes: it only
+   * moves after the caches have been cleared, so a response is never older than its tag.
+   */
+  public Revision revision() {
+    return revision.get();
+  }
+
+  public List<CacheStats> stats() {
+    return List.of(byId.stats(), lists.stats());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    // Loads in flight are forgotten before the caches are invalidated: a reader that starts
+    // after the invalidation must not join a load that began before the write
+    for (Long id : event.productIds()) {
+      byIdLoads.forget(id);
+      byId.invalidate(id);
+    }
+    // Any write can move a product in or out of a list (or change what it shows), so
+    // lists are dropped wholesale; they are cheap to rebuild compared to tracking membership.
+    listLoads.forgetAll();
+    lists.invalidateAll();
+    revision.updateAndGet(r -> new Revision(r.epoch(), r.number() + 1, Instant.now()));
+  }
+
+  public record Revision(String epoch, long number, Instant lastModified) {
+    /** Opaque validator, e.g. {@code lq3x1z-42}; unique per instance and revision. */
+    public String tag() {
+      return epoch + "-" + number;
+    }
+  }
+}
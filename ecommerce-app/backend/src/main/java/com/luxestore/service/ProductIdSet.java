@@ -0,0 +1,91 @@
+package com.luxestore.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Immutable set of product ids, stored in whichever of two layouts is smaller: a bitmap
+ * over [min, max] when the ids are dense, or a sorted array when they are sparse. A plain
+ * bitmap from zero would cost 125KB for one wishlisted product near id 1,000,000. Updates
+ * return a new set, so a set can be read from any thread without locking.
+ */
+final class ProductIdSet {
+
+  static final ProductIdSet EMPTY = new ProductIdSet(0, null, new long[0], 0);
+
+  private final long base;     // id of bit 0; dense layout only
+  private final long[] words;  // bitmap, or null in the sparse layout
+  private final long[] sorted; // ascending ids, or null in the dense layout
+  private final int size;
+
+  private ProductIdSet(long base, long[] words, long[] sorted, int size) {
+    this.base = base;
+    this.words = words;
+    this.sorted = sorted;
+    this.size = size;
+  }
+
+  static ProductIdSet of(Collection<Long> ids) {
+    return fromSorted(ids.stream().filter(Objects::nonNull).mapToLong(Long::longValue).sorted().distinct().toArray());
+  }
+
+  private static ProductIdSet fromSorted(long[] ids) {
+    if (ids.length == 0) return EMPTY;
+    long range = ids[ids.length - 1] - ids[0] + 1;
+    long wordCount = (range + 63) >>> 6;
+    // One long per id either way, so the bitmap wins once ids fill more than 1 in 64 slots
+    if (wordCount >= ids.length) return new ProductIdSet(0, null, ids, ids.length);
+    long[] words = new long[(int) wordCount];
+    for (long id : ids) {
+      long offset = id - ids[0];
+      words[(int) (offset >>> 6)] |= 1L << offset;
+    }
+    return new ProductIdSet(ids[0], words, null, ids.length);
+  }
+
+  boolean contains(long id) {
+    if (words == null) return Arrays.binarySearch(sorted, id) >= 0;
+    long offset = id - base;
+    if (offset < 0 || offset >>> 6 >= words.length) return false;
+    return (words[(int) (offset >>> 6)] & (1L << offset)) != 0;
+  }
+
+  ProductIdSet with(long id) {
+    if (contains(id)) return this;
+    long[] ids = toArray();
+    int at = -Arrays.binarySearch(ids, id) - 1;
+    long[] next = new long[ids.length + 1];
+    System.arraycopy(ids, 0, next, 0, at);
+    next[at] = id;
+    System.arraycopy(ids, at, next, at + 1, ids.length - at);
+    return fromSorted(next);
+  }
+
+  ProductIdSet without(long id) {
+    if (!contains(id)) return this;
+    long[] ids = toArray();
+    int at = Arrays.binarySearch(ids, id);
+    long[] next = new long[ids.length - 1];
+    System.arraycopy(ids, 0, next, 0, at);
+    System.arraycopy(ids, at + 1, next, at, next.length - at);
+    return fromSorted(next);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** Ids in ascending order. */
+  long[] toArray() {
+    if (words == null) return sorted.clone();
+    long[] ids = new long[size];
+    int n = 0;
+    for (int w = 0; w < words.length; w++) {
+      for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+        ids[n++] = base + ((long) w << 6) + Long.numberOfTrailingZeros(bits);
+      }
+    }
+    return ids;
+  }
+}
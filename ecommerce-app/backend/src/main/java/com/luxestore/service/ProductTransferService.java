@@ -0,0 +1,401 @@
+package com.luxestore.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.luxestore.dto.ProductImportRow;
+import com.luxestore.event.ProductChangedEvent;
+import com.luxestore.model.Product;
+
+import jakarta.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Bulk catalog import and export that run in constant memory however large the catalog.
+ *
+ * <p>Import parses CSV or NDJSON one row at a time and applies rows in chunks, one
+ * transaction per chunk: updates (rows with an id) go out as a single JDBC batch, new
+ * products are persisted through Hibernate with JDBC batching and the persistence context
+ * is flushed and cleared after every chunk. If a chunk fails in the database it is replayed
+ * row by row so only the offending rows are rejected. Progress and per-row errors are
+ * written to the caller as NDJSON while the import runs.
+ *
+ * <p>Export streams {@code product} from a forward-only cursor straight to the response.
+ */
+@Service
+public class ProductTransferService {
+
+  public enum Format { CSV, NDJSON }
+
+  static final List<String> COLUMNS = List.of("id", "name", "category", "price", "quantity", "image");
+
+  private static final String UPDATE_SQL =
+      "UPDATE product SET name = ?, category = ?, price = ?, quantity = ?, image = ? WHERE id = ?";
+  private static final String EXPORT_SQL =
+      "SELECT id, name, category, price, quantity, image FROM product ORDER BY id";
+
+  private final JdbcTemplate jdbc;
+  private final JdbcTemplate streamingJdbc;
+  private final EntityManager em;
+  private final TransactionTemplate tx;
+  private final TransactionTemplate readOnlyTx;
+  private final ApplicationEventPublisher events;
+  private final ObjectMapper mapper;
+  private final int chunkSize;
+  private final int maxErrors;
+
+  public ProductTransferService(JdbcTemplate jdbc, DataSource dataSource, EntityManager em,
+                                PlatformTransactionManager txManager, ApplicationEventPublisher events,
+                                ObjectMapper mapper,
+                                @Value("${catalog.import.chunk-size:500}") int chunkSize,
+                                @Value("${catalog.import.max-errors:1000}") int maxErrors) {
+    this.jdbc = jdbc;
+    this.streamingJdbc = new JdbcTemplate(dataSource);
+    this.streamingJdbc.setFetchSize(1000);
+    this.em = em;
+    this.tx = new TransactionTemplate(txManager);
+    this.readOnlyTx = new TransactionTemplate(txManager);
+    // PostgreSQL only streams with a fetch size inside a transaction
+    this.readOnlyTx.setReadOnly(true);
+    this.events = events;
+    this.mapper = mapper;
+    this.chunkSize = chunkSize;
+    this.maxErrors = maxErrors;
+  }
+
+  /** A row read from the input, with the line or record number errors are reported against. */
+  private record Numbered(long row, ProductImportRow data) {}
+
+  private static final class RowException extends Exception {
+    final long row;
+
+    RowException(long row, String message) {
+      super("line " + row + ": " + message);
+      this.row = row;
+    }
+  }
+
+  private interface RowSource {
+    /** Next row, or null at end of input; a RowException rejects that row only. */
+    Numbered next() throws IOException, RowException;
+  }
+
+  /**
+   * Reads the whole input and writes NDJSON progress to {@code report}: an {@code error}
+   * line per rejected row, a {@code progress} line per chunk and a final {@code summary}.
+   * Stops early once {@code catalog.import.max-errors} rows have been rejected.
+   *
+   * @throws IllegalArgumentException if a CSV header is missing or names unknown columns;
+   *         thrown before anything is written
+   */
+  public void importProducts(InputStream in, Format format, OutputStream report) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    RowSource source = format == Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+    // No root value separator: lines are split by the explicit '\n', which Jackson would follow with a space
+    ImportRun run = new ImportRun(mapper.getFactory().createGenerator(report).setRootValueSeparator(null));
+    long started = System.nanoTime();
+
+    List<Numbered> chunk = new ArrayList<>(chunkSize);
+    while (run.failed < maxErrors) {
+      Numbered row;
+      try {
+        row = source.next();
+      } catch (RowException e) {
+        run.rows++;
+        run.error(e.row, e.getMessage());
+        continue;
+      }
+      if (row == null) break;
+      run.rows++;
+      String invalid = validate(row.data());
+      if (invalid != null) {
+        run.error(row.row(), "line " + row.row() + ": " + invalid);
+        continue;
+      }
+      chunk.add(row);
+      if (chunk.size() == chunkSize) {
+        apply(chunk, run);
+        chunk.clear();
+        run.progress("progress");
+      }
+    }
+    if (!chunk.isEmpty() && run.failed < maxErrors) apply(chunk, run);
+    run.aborted = run.failed >= maxErrors;
+    run.elapsedMs = (System.nanoTime() - started) / 1_000_000;
+    run.progress("summary");
+  }
+
+  /** Writes every product as CSV (with a header row) or NDJSON, in id order. */
+  public void export(Format format, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    JsonGenerator gen = format == Format.NDJSON
+        ? mapper.getFactory().createGenerator(writer).setRootValueSeparator(null)
+        : null;
+    try {
+      if (format == Format.CSV) writer.write(String.join(",", COLUMNS) + "\n");
+      readOnlyTx.executeWithoutResult(status -> streamingJdbc.query(EXPORT_SQL, rs -> {
+        try {
+          if (gen != null) {
+            gen.writeStartObject();
+            gen.writeNumberField("id", rs.getLong(1));
+            gen.writeStringField("name", rs.getString(2));
+            gen.writeStringField("category", rs.getString(3));
+            gen.writeNumberField("price", rs.getDouble(4));
+            gen.writeNumberField("quantity", rs.getInt(5));
+            gen.writeStringField("image", rs.getString(6));
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+          } else {
+            writer.write(rs.getLong(1) + "," + CsvReader.escape(rs.getString(2)) + "," + CsvReader.escape(rs.getString(3))
+                + "," + rs.getDouble(4) + "," + rs.getInt(5) + "," + CsvReader.escape(rs.getString(6)) + "\n");
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    if (gen != null) gen.flush();
+    writer.flush();
+  }
+
+  private void apply(List<Numbered> chunk, ImportRun run) throws IOException {
+    ChunkResult result;
+    try {
+      result = tx.execute(status -> write(chunk));
+    } catch (DataAccessException | jakarta.persistence.PersistenceException e) {
+      // Something in the chunk violates a constraint; isolate it by replaying rows singly
+      result = new ChunkResult();
+      for (Numbered row : chunk) {
+        try {
+          result.merge(tx.execute(status -> write(List.of(row))));
+        } catch (DataAccessException | jakarta.persistence.PersistenceException rowError) {
+          result.errors.put(row.row(), rootMessage(rowError));
+        }
+      }
+    }
+    run.created += result.created;
+    run.updated += result.updated;
+    for (Map.Entry<Long, String> e : result.errors.entrySet()) run.error(e.getKey(), "line " + e.getKey() + ": " + e.getValue());
+  }
+
+  private static final class ChunkResult {
+    long created;
+    long updated;
+    final Map<Long, String> errors = new TreeMap<>();
+
+    void merge(ChunkResult other) {
+      created += other.created;
+      updated += other.updated;
+      errors.putAll(other.errors);
+    }
+  }
+
+  // Runs inside the chunk transaction
+  private ChunkResult write(List<Numbered> rows) {
+    ChunkResult result = new ChunkResult();
+    List<Long> changed = new ArrayList<>(rows.size());
+
+    List<Numbered> updates = rows.stream().filter(r -> r.data().id() != null).toList();
+    if (!updates.isEmpty()) {
+      List<Object[]> batch = new ArrayList<>(updates.size());
+      for (Numbered r : updates) {
+        ProductImportRow d = r.data();
+        batch.add(new Object[] { d.name().trim(), blankToNull(d.category()), d.price(), d.quantity(), blankToNull(d.image()), d.id() });
+      }
+      int[] counts = jdbc.batchUpdate(UPDATE_SQL, batch);
+      for (int i = 0; i < counts.length; i++) {
+        Numbered r = updates.get(i);
+        if (counts[i] == 0) {
+          result.errors.put(r.row(), "No product with id " + r.data().id());
+        } else {
+          result.updated++;
+          changed.add(r.data().id());
+        }
+      }
+    }
+
+    Session session = em.unwrap(Session.class);
+    session.setJdbcBatchSize(rows.size());
+    for (Numbered r : rows) {
+      ProductImportRow d = r.data();
+      if (d.id() != null) continue;
+      Product p = new Product(d.name().trim(), blankToNull(d.category()), d.price(), d.quantity(), blankToNull(d.image()));
+      em.persist(p);
+      changed.add(p.getId());
+      result.created++;
+    }
+    em.flush();
+    em.clear();
+
+    if (!changed.isEmpty()) events.publishEvent(ProductChangedEvent.details(changed));
+    return result;
+  }
+
+  private static String validate(ProductImportRow r) {
+    if (r.name() == null || r.name().isBlank()) return "name is required";
+    if (r.name().length() > 255) return "name is longer than 255 characters";
+    if (r.category() != null && r.category().length() > 255) return "category is longer than 255 characters";
+    if (r.image() != null && r.image().length() > 255) return "image is longer than 255 characters";
+    if (r.price() == null) return "price is required";
+    if (r.price().isNaN() || r.price().isInfinite() || r.price() < 0) return "price must be a non-negative number";
+    if (r.quantity() == null) return "quantity is required";
+    if (r.quantity() < 0) return "quantity must not be negative";
+    return null;
+  }
+
+  private RowSource csvSource(BufferedReader reader) throws IOException {
+    CsvReader csv = new CsvReader(reader);
+    List<String> header = csv.next();
+    if (header == null) throw new IllegalArgumentException("CSV input is empty");
+    Map<String, Integer> index = new HashMap<>();
+    for (int i = 0; i < header.size(); i++) {
+      String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+      if (i == 0 && column.startsWith("\uFEFF")) column = column.substring(1);
+      if (!COLUMNS.contains(column)) throw new IllegalArgumentException("Unknown CSV column '" + header.get(i) + "'");
+      if (index.put(column, i) != null) throw new IllegalArgumentException("Duplicate CSV column '" + column + "'");
+    }
+    for (String required : Set.of("name", "price", "quantity")) {
+      if (!index.containsKey(required)) throw new IllegalArgumentException("CSV header has no '" + required + "' column");
+    }
+    int width = header.size();
+    return () -> {
+      List<String> f;
+      try {
+        f = csv.next();
+      } catch (EOFException e) {
+        throw new RowException(csv.recordLine(), e.getMessage());
+      }
+      long line = csv.recordLine();
+      if (f == null) return null;
+      if (f.size() != width) throw new RowException(line, "expected " + width + " fields, found " + f.size());
+      try {
+        return new Numbered(line, new ProductImportRow(
+            parseLong(field(f, index, "id")), field(f, index, "name"), field(f, index, "category"),
+            parseDouble(field(f, index, "price")), parseInt(field(f, index, "quantity")), field(f, index, "image")));
+      } catch (NumberFormatException e) {
+        throw new RowException(line, e.getMessage());
+      }
+    };
+  }
+
+  private RowSource ndjsonSource(BufferedReader reader) {
+    ObjectReader rows = mapper.readerFor(ProductImportRow.class)
+        .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    long[] lineNo = { 0 };
+    return () -> {
+      String line;
+      do {
+        line = reader.readLine();
+        if (line == null) return null;
+        lineNo[0]++;
+      } while (line.isBlank());
+      try {
+        return new Numbered(lineNo[0], rows.readValue(line));
+      } catch (JsonProcessingException e) {
+        throw new RowException(lineNo[0], e.getOriginalMessage());
+      }
+    };
+  }
+
+  private static String field(List<String> fields, Map<String, Integer> index, String column) {
+    Integer i = index.get(column);
+    if (i == null) return null;
+    String v = fields.get(i).trim();
+    return v.isEmpty() ? null : v;
+  }
+
+  private static Long parseLong(String s) {
+    return s == null ? null : Long.valueOf(s);
+  }
+
+  private static Integer parseInt(String s) {
+    return s == null ? null : Integer.valueOf(s);
+  }
+
+  private static Double parseDouble(String s) {
+    return s == null ? null : Double.valueOf(s);
+  }
+
+  private static String blankToNull(String s) {
+    return s == null || s.isBlank() ? null : s.trim();
+  }
+
+  private static String rootMessage(Throwable e) {
+    Throwable root = e;
+    while (root.getCause() != null && root.getCause() != root) root = root.getCause();
+    return root.getMessage();
+  }
+
+  /** Counters for one import and the NDJSON report written as it goes. */
+  private static final class ImportRun {
+    private final JsonGenerator gen;
+    long rows;
+    long created;
+    long updated;
+    long failed;
+    boolean aborted;
+    long elapsedMs;
+
+    ImportRun(JsonGenerator gen) {
+      this.gen = gen;
+    }
+
+    void error(long row, String message) throws IOException {
+      failed++;
+      gen.writeStartObject();
+      gen.writeStringField("type", "error");
+      gen.writeNumberField("row", row);
+      gen.writeStringField("message", message);
+      gen.writeEndObject();
+      gen.writeRaw('\n');
+    }
+
+    void progress(String type) throws IOException {
+      gen.writeStartObject();
+      gen.writeStringField("type", type);
+      gen.writeNumberField("rows", rows);
+      gen.writeNumberField("created", created);
+      gen.writeNumberField("updated", updated);
+      gen.writeNumberField("failed", failed);
+      if (type.equals("summary")) {
+        gen.writeBooleanField("aborted", aborted);
+        gen.writeNumberField("elapsedMs", elapsedMs);
+      }
+      gen.writeEndObject();
+      gen.writeRaw('\n');
+      gen.flush();
+    }
+  }
+}
@@ -0,0 +1,277 @@
+package com.luxestore.service;
+
+import com.luxestore.dto.StockReservation;
+import com.luxestore.event.ProductChangedEvent;
+import com.luxestore.model.Product;
+import com.luxestore.repository.ProductRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns every stock decrement. The database row is the source of truth and is only ever
+ * changed with a conditional {@code quantity >= qty} update, so concurrent buyers cannot
+ * oversell regardless of interleaving.
+ *
+ * <p>Reservations take stock out immediately and give it back on release or expiry. Each
+ * hold is a {@code stock_reservation} row written in the same transaction as its decrement,
+ * so a restart neither loses holds nor strands their units; commit, release and expiry
+ * each delete the row, and only the one whose delete succeeds acts on it.
+ * SKUs switched into flash-sale mode additionally get a striped in-memory counter that
+ * rejects sold-out requests before they reach the database.
+ *
+ * <p>Every refusal increments {@code stock.conflicts}, tagged with the operation and with
+ * whether the flash-sale counter or the database said no.
+ */
+@Service
+public class StockReservationService {
+
+  private static final Logger log = LoggerFactory.getLogger(StockReservationService.class);
+
+  private static final String DECREMENT_SQL = "UPDATE product SET quantity = quantity - ? WHERE id = ? AND quantity >= ?";
+  private static final String INSERT_RESERVATION_SQL =
+      "INSERT INTO stock_reservation (id, product_id, quantity, expires_at) VALUES (?, ?, ?, ?)";
+  private static final String FIND_RESERVATION_SQL =
+      "SELECT id, product_id, quantity, expires_at FROM stock_reservation WHERE id = ?";
+  private static final String DELETE_RESERVATION_SQL = "DELETE FROM stock_reservation WHERE id = ?";
+  private static final String EXPIRED_SQL =
+      "SELECT id, product_id, quantity, expires_at FROM stock_reservation WHERE expires_at < ? ORDER BY expires_at LIMIT ?";
+  private static final int SWEEP_BATCH = 500;
+
+  private final ProductRepository repo;
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final ApplicationEventPublisher events;
+  private final MeterRegistry meters;
+  private final Duration defaultTtl;
+  private final Duration maxTtl;
+  private final int stripes;
+
+  // Refreshed by the sweep, so the gauge does not query on every scrape
+  private final AtomicLong activeReservations = new AtomicLong();
+  private final Map<Long, StripedStockCounter> flashSale = new ConcurrentHashMap<>();
+
+  public StockReservationService(ProductRepository repo, JdbcTemplate jdbc, TransactionTemplate tx,
+                                 ApplicationEventPublisher events,
+                                 MeterRegistry meters,
+                                 @Value("${stock.reservation.default-ttl:10m}") Duration defaultTtl,
+                                 @Value("${stock.reservation.max-ttl:30m}") Duration maxTtl,
+                                 @Value("${stock.flash-sale.stripes:16}") int stripes) {
+    this.repo = repo;
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.events = events;
+    this.meters = meters;
+    this.defaultTtl = defaultTtl;
+    this.maxTtl = maxTtl;
+    this.stripes = stripes;
+    Gauge.builder("stock.reservations.active", activeReservations, AtomicLong::get).register(meters);
+    Gauge.builder("stock.flash_sale.products", flashSale, Map::size).register(meters);
+  }
+
+  /** Removes qty units for good and returns the product with its new quantity. */
+  public Product decrement(Long productId, int qty) {
+    take(productId, qty, "decrement");
+    events.publishEvent(ProductChangedEvent.stock(productId));
+    return repo.findById(productId).orElseThrow();
+  }
+
+  /**
+   * Removes stock for several products with one JDBC batch. Must run inside the caller's
+   * transaction: if any line is short the exception rolls back the lines already applied,
+   * and flash-sale counters taken here are handed back on rollback.
+   */
+  public void decrementAll(Map<Long, Integer> quantities) {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException("decrementAll requires an active transaction");
+    }
+    Map<Long, Integer> countersTaken = new LinkedHashMap<>();
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          countersTaken.forEach((id, qty) -> {
+            StripedStockCounter counter = flashSale.get(id);
+            if (counter != null) counter.release(qty);
+          });
+        }
+      }
+    });
+
+    List<Object[]> batch = new ArrayList<>(quantities.size());
+    for (Map.Entry<Long, Integer> e : quantities.entrySet()) {
+      Long id = e.getKey();
+      int qty = e.getValue();
+      if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive");
+      StripedStockCounter counter = flashSale.get(id);
+      if (counter != null) {
+        if (!counter.tryAcquire(qty)) throw conflict(id, "checkout", "flash_sale");
+        countersTaken.put(id, qty);
+      }
+      batch.add(new Object[] { qty, id, qty });
+    }
+
+    int[] counts = jdbc.batchUpdate(DECREMENT_SQL, batch);
+    for (int i = 0; i < counts.length; i++) {
+      // Drivers may report SUCCESS_NO_INFO (-2) for batched rows; only an explicit 0 is a miss
+      if (counts[i] == 0) throw conflict((Long) batch.get(i)[1], "checkout", "database");
+    }
+    events.publishEvent(ProductChangedEvent.stock(quantities.keySet()));
+  }
+
+  public StockReservation reserve(Long productId, int qty, Duration ttl) {
+    Duration hold = ttl == null ? defaultTtl : (ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl);
+    StockReservation r = new StockReservation(UUID.randomUUID().toString(), productId, qty, Instant.now().plus(hold));
+    boolean[] taken = { false };
+    try {
+      tx.executeWithoutResult(status -> {
+        take(productId, qty, "reserve");
+        taken[0] = true;
+        jdbc.update(INSERT_RESERVATION_SQL, r.id(), r.productId(), r.quantity(), Timestamp.from(r.expiresAt()));
+      });
+    } catch (RuntimeException e) {
+      // The decrement rolled back with the insert; the flash-sale counter has to be undone by hand
+      if (taken[0]) releaseCounter(productId, qty);
+      throw e;
+    }
+    events.publishEvent(ProductChangedEvent.stock(productId));
+    return r;
+  }
+
+  /** Makes a reservation permanent. Fails if it was already released or has expired. */
+  public StockReservation commit(String reservationId) {
+    return tx.execute(status -> claim(reservationId));
+  }
+
+  public StockReservation release(String reservationId) {
+    StockReservation r = tx.execute(status -> {
+      StockReservation claimed = claim(reservationId);
+      repo.increment(claimed.productId(), claimed.quantity());
+      return claimed;
+    });
+    gaveBack(r);
+    return r;
+  }
+
+  /** Returns the units of expired holds, including holds that expired while the app was down. */
+  @Scheduled(fixedDelayString = "${stock.reservation.sweep-interval:5s}")
+  public void expireReservations() {
+    List<StockReservation> expired;
+    do {
+      expired = jdbc.query(EXPIRED_SQL, StockReservationService::reservation, Timestamp.from(Instant.now()), SWEEP_BATCH);
+      for (StockReservation r : expired) {
+        // The delete decides: a concurrent commit or release that got there first wins
+        Boolean returned = tx.execute(status -> {
+          if (jdbc.update(DELETE_RESERVATION_SQL, r.id()) == 0) return false;
+          repo.increment(r.productId(), r.quantity());
+          return true;
+        });
+        if (Boolean.TRUE.equals(returned)) {
+          gaveBack(r);
+          meters.counter("stock.reservations.expired").increment();
+          log.debug("Reservation {} for product {} expired", r.id(), r.productId());
+        }
+      }
+    } while (expired.size() == SWEEP_BATCH);
+    Long active = jdbc.queryForObject("SELECT COUNT(*) FROM stock_reservation", Long.class);
+    activeReservations.set(active == null ? 0 : active);
+  }
+
+  // Deletes the hold inside the caller's transaction, so exactly one of commit, release and expiry acts on it
+  private StockReservation claim(String reservationId) {
+    List<StockReservation> found = jdbc.query(FIND_RESERVATION_SQL, StockReservationService::reservation, reservationId);
+    if (found.isEmpty() || jdbc.update(DELETE_RESERVATION_SQL, reservationId) == 0) {
+      throw new NoSuchElementException("Reservation " + reservationId + " not found or expired");
+    }
+    return found.get(0);
+  }
+
+  private static StockReservation reservation(ResultSet rs, int rowNum) throws SQLException {
+    return new StockReservation(rs.getString("id"), rs.getLong("product_id"), rs.getInt("quantity"),
+        rs.getTimestamp("expires_at").toInstant());
+  }
+
+  /** Puts a SKU in flash-sale mode, seeding the striped counter from the current stock. */
+  public int enableFlashSale(Long productId) {
+    Integer qty = repo.findQuantityById(productId);
+    if (qty == null) throw new NoSuchElementException("Product " + productId + " not found");
+    flashSale.compute(productId, (id, existing) -> {
+      if (existing == null) return new StripedStockCounter(stripes, qty);
+      existing.reset(qty);
+      return existing;
+    });
+    return qty;
+  }
+
+  public void disableFlashSale(Long productId) {
+    flashSale.remove(productId);
+  }
+
+  // Restocks and edits arrive as DETAILS changes; re-seed the counter from the database
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    if (event.change() == ProductChangedEvent.Change.STOCK) return;
+    for (Long id : event.productIds()) {
+      StripedStockCounter counter = flashSale.get(id);
+      if (counter == null) continue;
+      Integer qty = repo.findQuantityById(id);
+      if (qty == null) flashSale.remove(id);
+      else counter.reset(qty);
+    }
+  }
+
+  private void take(Long productId, int qty, String operation) {
+    if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive");
+    StripedStockCounter counter = flashSale.get(productId);
+    if (counter != null && !counter.tryAcquire(qty)) {
+      throw conflict(productId, operation, "flash_sale");
+    }
+    if (repo.decrementIfAvailable(productId, qty) == 0) {
+      if (counter != null) counter.release(qty);
+      if (!repo.existsById(productId)) throw new NoSuchElementException("Product " + productId + " not found");
+      throw conflict(productId, operation, "database");
+    }
+  }
+
+  private InsufficientStockException conflict(Long productId, String operation, String source) {
+    meters.counter("stock.conflicts", "operation", operation, "source", source).increment();
+    return new InsufficientStockException(productId);
+  }
+
+  // After the increment has committed
+  private void gaveBack(StockReservation r) {
+    releaseCounter(r.productId(), r.quantity());
+    events.publishEvent(ProductChangedEvent.stock(r.productId()));
+  }
+
+  private void releaseCounter(Long productId, int qty) {
+    StripedStockCounter counter = flashSale.get(productId);
+    if (counter != null) counter.release(qty);
+  }
+}
@@ -0,0 +1,78 @@
+package com.luxestore.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stock count split over several independently CAS-updated stripes, so buyers of one hot
+ * SKU mostly contend on different cache lines instead of a single counter. A purchase is
+ * taken from one stripe when possible and gathered across stripes otherwise; the total can
+ * never go below zero.
+ */
+class StripedStockCounter {
+
+  // Stripes are spaced one cache line apart to avoid false sharing
+  private static final int PAD = 16;
+
+  private final int stripes;
+  private final AtomicIntegerArray cells;
+
+  StripedStockCounter(int stripes, int initial) {
+    this.stripes = stripes;
+    this.cells = new AtomicIntegerArray(stripes * PAD);
+    reset(initial);
+  }
+
+  synchronized void reset(int total) {
+    int base = Math.max(total, 0) / stripes;
+    int extra = Math.max(total, 0) % stripes;
+    for (int i = 0; i < stripes; i++) {
+      cells.set(i * PAD, base + (i < extra ? 1 : 0));
+    }
+  }
+
+  boolean tryAcquire(int qty) {
+    int start = ThreadLocalRandom.current().nextInt(stripes);
+    for (int n = 0; n < stripes; n++) {
+      int idx = ((start + n) % stripes) * PAD;
+      int cur;
+      while ((cur = cells.get(idx)) >= qty) {
+        if (cells.compareAndSet(idx, cur, cur - qty)) return true;
+      }
+    }
+    return gather(qty);
+  }
+
+  // Slow path: no single stripe holds qty, so collect it piecewise and roll back on failure
+  private synchronized boolean gather(int qty) {
+    int[] taken = new int[stripes];
+    int remaining = qty;
+    for (int i = 0; i < stripes && remaining > 0; i++) {
+      int idx = i * PAD;
+      int cur;
+      while ((cur = cells.get(idx)) > 0) {
+        int take = Math.min(cur, remaining);
+        if (cells.compareAndSet(idx, cur, cur - take)) {
+          taken[i] = take;
+          remaining -= take;
+          break;
+        }
+      }
+    }
+    if (remaining == 0) return true;
+    for (int i = 0; i < stripes; i++) {
+      if (taken[i] > 0) cells.addAndGet(i * PAD, taken[i]);
+    }
+    return false;
+  }
+
+  void release(int qty) {
+    cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PAD, qty);
+  }
+
+  int available() {
+    int sum = 0;
+    for (int i = 0; i < stripes; i++) sum += cells.get(i * PAD);
+    return sum;
+  }
+}
@@ -0,0 +1,82 @@
+package com.luxestore.service;
+
+import com.luxestore.cache.BoundedCache;
+import com.luxestore.model.WishlistItem;
+import com.luxestore.repository.WishlistRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Wishlist writes and membership checks. Each user's wishlisted product ids are loaded once
+ * into a compact {@link ProductIdSet} and then kept current by {@link #add} and
+ * {@link #remove}, so "is this wishlisted?" for a whole product grid costs no SQL.
+ */
+@Service
+public class WishlistService {
+
+  private final WishlistRepository repo;
+  private final BoundedCache<Long, ProductIdSet> memberships;
+
+  public WishlistService(WishlistRepository repo,
+                         @Value("${wishlist.membership.max-users:10000}") int maxUsers,
+                         @Value("${wishlist.membership.ttl:30m}") Duration ttl) {
+    this.repo = repo;
+    this.memberships = new BoundedCache<>("wishlist.membership", maxUsers, ttl);
+  }
+
+  public List<WishlistItem> findByUserId(Long userId) {
+    return repo.findByUserId(userId);
+  }
+
+  /**
+   * Adds the product to the user's wishlist, or returns the existing item if it is already
+   * there. Two concurrent adds can both miss the lookup; the unique key rejects the second
+   * insert, which then returns the row the first one wrote.
+   */
+  public WishlistItem add(WishlistItem item) {
+    if (item.getUserId() == null) throw new IllegalArgumentException("userId is required");
+    if (item.getProductId() == null) throw new IllegalArgumentException("productId is required");
+    Long userId = item.getUserId();
+    Long productId = item.getProductId();
+    WishlistItem saved = repo.findByUserIdAndProductId(userId, productId).orElseGet(() -> {
+      try {
+        return repo.saveAndFlush(new WishlistItem(userId, productId));
+      } catch (DataIntegrityViolationException e) {
+        return repo.findByUserIdAndProductId(userId, productId).orElseThrow(() -> e);
+      }
+    });
+    memberships.computeIfPresent(userId, ids -> ids.with(productId));
+    return saved;
+  }
+
+  public void remove(Long userId, Long productId) {
+    repo.deleteByUserIdAndProductId(userId, productId);
+    memberships.computeIfPresent(userId, ids -> ids.without(productId));
+  }
+
+  public boolean contains(Long userId, Long productId) {
+    return productId != null && membership(userId).contains(productId);
+  }
+
+  /** The subset of {@code productIds} the user has wishlisted, in request order. */
+  public List<Long> containing(Long userId, Collection<Long> productIds) {
+    ProductIdSet ids = membership(userId);
+    List<Long> hits = new ArrayList<>();
+    for (Long id : new LinkedHashSet<>(productIds)) {
+      if (id != null && ids.contains(id)) hits.add(id);
+    }
+    return hits;
+  }
+
+  private ProductIdSet membership(Long userId) {
+    return memberships.getOrLoad(userId, id -> ProductIdSet.of(repo.findProductIdsByUserId(id)));
+  }
+}
@@ -0,0 +1,75 @@
+-- Baseline schema, equivalent to what Hibernate generates for the entities in com.luxestore.model.
+-- Written to run on PostgreSQL and on H2 in PostgreSQL mode.
+-- Sequences step by 50 to match allocationSize = 50 on the entities (pooled id allocation).
+
+CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE order_lines_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE wishlist_item_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE product (
+    id       BIGINT           NOT NULL PRIMARY KEY,
+    name     VARCHAR(255),
+    category VARCHAR(255),
+    price    DOUBLE PRECISION NOT NULL,
+    quantity INTEGER          NOT NULL,
+    image    VARCHAR(255)
+);
+CREATE INDEX idx_product_category_price ON product (category, price, id);
+CREATE INDEX idx_product_price ON product (price, id);
+CREATE INDEX idx_product_name ON product (name, id);
+
+-- IDENTITY, not a sequence: CartService inserts through a native MERGE
+CREATE TABLE cart_item (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT,
+    product_id BIGINT,
+    quantity   INTEGER NOT NULL,
+    imageurl   VARCHAR(255),
+    CONSTRAINT uk_cart_item_user_product UNIQUE (user_id, product_id)
+);
+
+CREATE TABLE orders (
+    id         BIGINT           NOT NULL PRIMARY KEY,
+    user_id    BIGINT,
+    order_date TIMESTAMP(6),
+    total      DOUBLE PRECISION NOT NULL,
+    items_json TEXT
+);
+
+CREATE TABLE order_lines (
+    id           BIGINT           NOT NULL PRIMARY KEY,
+    order_id     BIGINT           NOT NULL,
+    product_id   BIGINT           NOT NULL,
+    product_name VARCHAR(255),
+    category     VARCHAR(255),
+    quantity     INTEGER          NOT NULL,
+    unit_price   DOUBLE PRECISION NOT NULL
+);
+CREATE INDEX idx_order_lines_order ON order_lines (order_id);
+CREATE INDEX idx_order_lines_product ON order_lines (product_id);
+CREATE INDEX idx_order_lines_category ON order_lines (category);
+
+CREATE TABLE users (
+    id       BIGINT NOT NULL PRIMARY KEY,
+    name     VARCHAR(255),
+    email    VARCHAR(255),
+    password VARCHAR(255),
+    address  VARCHAR(255),
+    phone    VARCHAR(255),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    roles   VARCHAR(255)
+);
+CREATE INDEX idx_user_roles_user ON user_roles (user_id);
+
+CREATE TABLE wishlist_item (
+    id         BIGINT NOT NULL PRIMARY KEY,
+    user_id    BIGINT,
+    product_id BIGINT
+);
+CREATE INDEX idx_wishlist_item_user ON wishlist_item (user_id);
@@ -0,0 +1,9 @@
+-- Keep the oldest row of each (user_id, product_id) pair before enforcing uniqueness
+DELETE FROM wishlist_item w
+WHERE EXISTS (SELECT 1 FROM wishlist_item o
+              WHERE o.user_id = w.user_id AND o.product_id = w.product_id AND o.id < w.id);
+
+ALTER TABLE wishlist_item ADD CONSTRAINT uk_wishlist_item_user_product UNIQUE (user_id, product_id);
+
+-- The unique index leads with user_id, so it also serves the per-user lookups
+DROP INDEX idx_wishlist_item_user;
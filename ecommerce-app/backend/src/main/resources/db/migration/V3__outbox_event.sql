@@ -0,0 +1,16 @@
+CREATE SEQUENCE outbox_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_event (
+    id           BIGINT                      NOT NULL PRIMARY KEY,
+    type         VARCHAR(100)                NOT NULL,
+    ordering_key VARCHAR(100)                NOT NULL,
+    payload      VARCHAR(65535)              NOT NULL,
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    available_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    status       VARCHAR(16)                 NOT NULL,
+    attempts     INTEGER                     NOT NULL,
+    last_error   VARCHAR(1000),
+    processed_at TIMESTAMP(6) WITH TIME ZONE
+);
+CREATE INDEX idx_outbox_event_ready ON outbox_event (status, available_at, id);
+CREATE INDEX idx_outbox_event_key ON outbox_event (ordering_key, status, id);
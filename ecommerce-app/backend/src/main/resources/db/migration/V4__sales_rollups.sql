@@ -0,0 +1,25 @@
+-- Existing orders start uncounted; the rollups are empty, so the application rebuilds them
+-- from order history on its first start after this migration
+ALTER TABLE orders ADD COLUMN rolled_up BOOLEAN DEFAULT FALSE NOT NULL;
+
+CREATE TABLE daily_sales_rollup (
+    sales_date  DATE             NOT NULL PRIMARY KEY,
+    order_count BIGINT           NOT NULL,
+    units       BIGINT           NOT NULL,
+    revenue     DOUBLE PRECISION NOT NULL
+);
+
+CREATE TABLE product_sales_rollup (
+    product_id   BIGINT           NOT NULL PRIMARY KEY,
+    product_name VARCHAR(255),
+    order_count  BIGINT           NOT NULL,
+    units        BIGINT           NOT NULL,
+    revenue      DOUBLE PRECISION NOT NULL
+);
+CREATE INDEX idx_product_sales_rollup_revenue ON product_sales_rollup (revenue);
+
+CREATE TABLE category_sales_rollup (
+    category VARCHAR(255)     NOT NULL PRIMARY KEY,
+    units    BIGINT           NOT NULL,
+    revenue  DOUBLE PRECISION NOT NULL
+);
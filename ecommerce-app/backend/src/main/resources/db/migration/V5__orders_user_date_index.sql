@@ -0,0 +1,2 @@
+-- Order history filters on user and pages newest first by (order_date, id)
+CREATE INDEX idx_orders_user_date ON orders (user_id, order_date, id);
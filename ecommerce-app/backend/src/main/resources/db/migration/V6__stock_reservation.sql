@@ -0,0 +1,9 @@
+-- Stock holds used to live only in memory; a restart lost them with their units still
+-- taken out of product.quantity
+CREATE TABLE stock_reservation (
+    id         VARCHAR(36)                 NOT NULL PRIMARY KEY,
+    product_id BIGINT                      NOT NULL,
+    quantity   INTEGER                     NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+CREATE INDEX idx_stock_reservation_expires ON stock_reservation (expires_at);
@@ -0,0 +1,142 @@
+package com.luxestore.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryIndexStoreTest {
+
+  @Test
+  void putThenReadBack() {
+    InventoryIndex.Store store = new InventoryIndex.Store(4);
+    store.put(10, "Bags", 199.5, 3);
+
+    int row = store.row(10);
+    assertTrue(row >= 0);
+    assertEquals(199.5, store.price(row));
+    assertEquals(3, store.quantity(row));
+    assertEquals(-1, store.row(11));
+  }
+
+  @Test
+  void setQuantityIgnoresUnknownProducts() {
+    InventoryIndex.Store store = new InventoryIndex.Store(4);
+    store.put(1, "Shoes", 10, 5);
+
+    store.setQuantity(1, 2);
+    store.setQuantity(2, 9);
+
+    assertEquals(2, store.quantity(store.row(1)));
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  void movingCategoryRelinksTheRow() {
+    InventoryIndex.Store store = new InventoryIndex.Store(4);
+    store.put(1, "Shoes", 10, 1);
+    store.put(2, "Shoes", 20, 1);
+    store.put(3, "Shoes", 30, 1);
+
+    store.put(2, "Bags", 25, 4);
+
+    assertEquals(Set.of(1L, 3L), ids(store, "Shoes"));
+    assertEquals(Set.of(2L), ids(store, "Bags"));
+    assertEquals(25, store.price(store.row(2)));
+  }
+
+  @Test
+  void removeUnlinksHeadMiddleAndTail() {
+    InventoryIndex.Store store = new InventoryIndex.Store(4);
+    for (long id = 1; id <= 5; id++) store.put(id, "Watches", id, 1);
+
+    // Rows are pushed on the front, so 5 is the head and 1 the tail
+    store.remove(5);
+    store.remove(3);
+    store.remove(1);
+
+    assertEquals(Set.of(2L, 4L), ids(store, "Watches"));
+    assertEquals(2, store.size());
+  }
+
+  @Test
+  void nullCategoryIsItsOwnList() {
+    InventoryIndex.Store store = new InventoryIndex.Store(4);
+    store.put(1, null, 10, 1);
+    store.put(2, "Bags", 10, 1);
+
+    assertEquals(Set.of(1L), ids(store, null));
+    assertEquals(0, store.forEachInCategory("Unknown", (id, price, quantity) -> {}));
+  }
+
+  @Test
+  void freedRowsAreReused() {
+    InventoryIndex.Store store = new InventoryIndex.Store(4);
+    for (long id = 1; id <= 100; id++) store.put(id, "Bags", id, 1);
+    long grown = store.offHeapBytes();
+
+    for (long id = 1; id <= 100; id++) store.remove(id);
+    for (long id = 101; id <= 200; id++) store.put(id, "Bags", id, 1);
+
+    assertEquals(grown, store.offHeapBytes());
+    assertEquals(100, ids(store, "Bags").size());
+  }
+
+  @Test
+  void matchesAReferenceModelUnderRandomChurn() {
+    Random random = new Random(7);
+    String[] categories = {"Bags", "Shoes", "Watches", null};
+    InventoryIndex.Store store = new InventoryIndex.Store(16);
+    Map<Long, String> categoryOf = new HashMap<>();
+    Map<Long, Integer> quantityOf = new HashMap<>();
+    for (int op = 0; op < 50_000; op++) {
+      long id = 1 + random.nextInt(500);
+      switch (random.nextInt(4)) {
+        case 0 -> {
+          store.remove(id);
+          categoryOf.remove(id);
+          quantityOf.remove(id);
+        }
+        case 1 -> {
+          int q = random.nextInt(100);
+          store.setQuantity(id, q);
+          if (quantityOf.containsKey(id)) quantityOf.put(id, q);
+        }
+        default -> {
+          String category = categories[random.nextInt(categories.length)];
+          int q = random.nextInt(100);
+          store.put(id, category, id, q);
+          categoryOf.put(id, category);
+          quantityOf.put(id, q);
+        }
+      }
+    }
+
+    assertEquals(categoryOf.size(), store.size());
+    for (String category : categories) {
+      Set<Long> expected = new HashSet<>();
+      categoryOf.forEach((id, c) -> {
+        if (c == null ? category == null : c.equals(category)) expected.add(id);
+      });
+      assertEquals(expected, ids(store, category));
+    }
+    quantityOf.forEach((id, q) -> assertEquals((int) q, store.quantity(store.row(id))));
+  }
+
+  private static Set<Long> ids(InventoryIndex.Store store, String category) {
+    List<Long> seen = new ArrayList<>();
+    int n = store.forEachInCategory(category, (id, price, quantity) -> seen.add(id));
+    assertEquals(seen.size(), n);
+    Set<Long> ids = new HashSet<>(seen);
+    assertEquals(seen.size(), ids.size(), "a row is linked twice");
+    return ids;
+  }
+}
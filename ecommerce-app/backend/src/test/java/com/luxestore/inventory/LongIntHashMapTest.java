@@ -0,0 +1,157 @@
+package com.luxestore.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongIntHashMapTest {
+
+  // A fresh map for up to 8 entries has 16 slots
+  private static final int MASK = 15;
+
+  @Test
+  void putGetAndOverwrite() {
+    LongIntHashMap map = new LongIntHashMap(8);
+    map.put(7, 70);
+    map.put(-3, 30);
+    map.put(7, 71);
+
+    assertEquals(2, map.size());
+    assertEquals(71, map.get(7));
+    assertEquals(30, map.get(-3));
+    assertEquals(LongIntHashMap.MISSING, map.get(8));
+  }
+
+  @Test
+  void rejectsZeroKey() {
+    assertThrows(IllegalArgumentException.class, () -> new LongIntHashMap(8).put(0, 1));
+  }
+
+  // Zero is the empty-slot marker; it must not find a free slot or its stale value
+  @Test
+  void zeroKeyIsNeverFound() {
+    LongIntHashMap map = new LongIntHashMap(8);
+    map.put(5, 0);
+    map.remove(5);
+    map.put(6, 1);
+
+    assertEquals(LongIntHashMap.MISSING, map.get(0));
+    assertEquals(LongIntHashMap.MISSING, map.remove(0));
+    assertEquals(1, map.size());
+    assertEquals(1, map.get(6));
+  }
+
+  @Test
+  void removeOfMissingKeyLeavesMapUnchanged() {
+    LongIntHashMap map = new LongIntHashMap(8);
+    map.put(1, 10);
+
+    assertEquals(LongIntHashMap.MISSING, map.remove(2));
+    assertEquals(1, map.size());
+    assertEquals(10, map.get(1));
+  }
+
+  @Test
+  void growsPastInitialCapacity() {
+    LongIntHashMap map = new LongIntHashMap(4);
+    for (long k = 1; k <= 10_000; k++) map.put(k, (int) k * 2);
+
+    assertEquals(10_000, map.size());
+    for (long k = 1; k <= 10_000; k++) assertEquals((int) k * 2, map.get(k));
+  }
+
+  // A probe chain that starts in the last slots and runs on from slot 0
+  @Test
+  void removeShiftsBackAcrossTheWrapAround() {
+    List<Long> endKeys = keysWithHome(MASK, 3);
+    long startKey = keysWithHome(0, 1).get(0);
+    LongIntHashMap map = new LongIntHashMap(8);
+    // Homes: 15, 15, 0, 15 -> slots 15, 0, 1, 2
+    map.put(endKeys.get(0), 1);
+    map.put(endKeys.get(1), 2);
+    map.put(startKey, 3);
+    map.put(endKeys.get(2), 4);
+
+    assertEquals(1, map.remove(endKeys.get(0)));
+
+    assertEquals(3, map.size());
+    assertEquals(2, map.get(endKeys.get(1)));
+    assertEquals(3, map.get(startKey));
+    assertEquals(4, map.get(endKeys.get(2)));
+  }
+
+  @Test
+  void removeInsideTheWrappedPartOfAChain() {
+    List<Long> endKeys = keysWithHome(MASK - 1, 4);
+    LongIntHashMap map = new LongIntHashMap(8);
+    // All home at 14 -> slots 14, 15, 0, 1
+    for (int i = 0; i < endKeys.size(); i++) map.put(endKeys.get(i), i);
+
+    assertEquals(2, map.remove(endKeys.get(2)));
+    assertEquals(0, map.remove(endKeys.get(0)));
+
+    assertEquals(2, map.size());
+    assertEquals(1, map.get(endKeys.get(1)));
+    assertEquals(3, map.get(endKeys.get(3)));
+    assertEquals(LongIntHashMap.MISSING, map.get(endKeys.get(0)));
+    assertEquals(LongIntHashMap.MISSING, map.get(endKeys.get(2)));
+  }
+
+  // An entry whose home lies between the gap and its own slot must stay where it is
+  @Test
+  void removeLeavesEntriesAlreadyAtOrPastTheirHome() {
+    long first = keysWithHome(MASK, 1).get(0);
+    long second = keysWithHome(0, 2).get(0);
+    long third = keysWithHome(0, 2).get(1);
+    LongIntHashMap map = new LongIntHashMap(8);
+    // Slots 15, 0, 1: the entries in 0 and 1 are both home at 0
+    map.put(first, 1);
+    map.put(second, 2);
+    map.put(third, 3);
+
+    map.remove(second);
+    map.remove(first);
+
+    assertEquals(1, map.size());
+    assertEquals(3, map.get(third));
+  }
+
+  @Test
+  void matchesHashMapUnderRandomChurn() {
+    Random random = new Random(42);
+    LongIntHashMap map = new LongIntHashMap(8);
+    Map<Long, Integer> expected = new HashMap<>();
+    for (int op = 0; op < 200_000; op++) {
+      // A small key range keeps chains long and collisions frequent
+      long key = 1 + random.nextInt(300);
+      if (random.nextInt(3) == 0) {
+        Integer old = expected.remove(key);
+        assertEquals(old == null ? LongIntHashMap.MISSING : old, map.remove(key));
+      } else {
+        int value = random.nextInt(1_000_000);
+        expected.put(key, value);
+        map.put(key, value);
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    for (long key = 1; key <= 300; key++) {
+      assertEquals((int) expected.getOrDefault(key, LongIntHashMap.MISSING), map.get(key));
+    }
+  }
+
+  private static List<Long> keysWithHome(int home, int count) {
+    List<Long> keys = new ArrayList<>(count);
+    for (long k = 1; keys.size() < count; k++) {
+      if (LongIntHashMap.slot(k, MASK) == home) keys.add(k);
+    }
+    return keys;
+  }
+}
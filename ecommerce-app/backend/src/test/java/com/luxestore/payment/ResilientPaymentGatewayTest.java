@@ -0,0 +1,152 @@
+package com.luxestore.payment;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Puts the bulkhead, deadline and circuit breaker in front of an {@link InMemoryPaymentGateway}
+ * that can be told to fail or to hold its answers; the breaker runs on a hand-moved clock.
+ */
+class ResilientPaymentGatewayTest {
+
+  private static final Duration OPEN = Duration.ofSeconds(30);
+  private static final Duration NO_DEADLINE = Duration.ofMinutes(5);
+
+  private final AtomicLong now = new AtomicLong();
+  private final ScriptedGateway provider = new ScriptedGateway();
+
+  @Test
+  void bulkheadRefusesCallsBeyondTheCap() throws Exception {
+    ResilientPaymentGateway gateway = guard(provider, 2, NO_DEADLINE, 5);
+    provider.hold = true;
+    gateway.createIntent(request());
+    gateway.createIntent(request());
+
+    assertInstanceOf(PaymentUnavailableException.class, failure(gateway.createIntent(request())));
+    assertEquals(2, provider.calls);
+    assertEquals(2, gateway.inFlight());
+
+    provider.answer(0);
+    assertEquals(1, gateway.inFlight());
+    provider.hold = false;
+    gateway.createIntent(request()).get(2, TimeUnit.SECONDS);
+    assertEquals(3, provider.calls);
+  }
+
+  @Test
+  void slowProviderTimesOutButKeepsItsPermit() {
+    ResilientPaymentGateway gateway = guard(new InMemoryPaymentGateway(Duration.ofSeconds(5)), 1, Duration.ofMillis(50), 5);
+
+    assertInstanceOf(PaymentTimeoutException.class, failure(gateway.createIntent(request())));
+    // The provider has not answered yet, so its call still fills the bulkhead
+    assertEquals(1, gateway.inFlight());
+    assertInstanceOf(PaymentUnavailableException.class, failure(gateway.createIntent(request())));
+  }
+
+  @Test
+  void circuitOpensThenLetsOneTrialThroughAndCloses() throws Exception {
+    ResilientPaymentGateway gateway = guard(provider, 10, NO_DEADLINE, 3);
+    provider.failWith = new PaymentFailedException("provider down", true, null);
+    for (int i = 0; i < 3; i++) {
+      assertEquals("CLOSED", gateway.circuitState());
+      assertInstanceOf(PaymentFailedException.class, failure(gateway.createIntent(request())));
+    }
+    assertEquals("OPEN", gateway.circuitState());
+
+    // Refused without reaching the provider until the open period is over
+    now.addAndGet(OPEN.toNanos() - 1);
+    assertInstanceOf(PaymentUnavailableException.class, failure(gateway.createIntent(request())));
+    assertEquals(3, provider.calls);
+
+    now.addAndGet(1);
+    provider.failWith = null;
+    provider.hold = true;
+    CompletableFuture<PaymentIntentResult> trial = gateway.createIntent(request());
+    assertEquals("HALF_OPEN", gateway.circuitState());
+    assertInstanceOf(PaymentUnavailableException.class, failure(gateway.createIntent(request())));
+    assertEquals(4, provider.calls);
+
+    provider.answer(0);
+    trial.get(2, TimeUnit.SECONDS);
+    assertEquals("CLOSED", gateway.circuitState());
+    provider.hold = false;
+    gateway.createIntent(request()).get(2, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void failedTrialOpensTheCircuitAgain() throws Exception {
+    ResilientPaymentGateway gateway = guard(provider, 10, NO_DEADLINE, 1);
+    provider.failWith = new PaymentFailedException("provider down", true, null);
+    failure(gateway.createIntent(request()));
+    assertEquals("OPEN", gateway.circuitState());
+
+    now.addAndGet(OPEN.toNanos());
+    failure(gateway.createIntent(request()));
+    assertEquals("OPEN", gateway.circuitState());
+    assertInstanceOf(PaymentUnavailableException.class, failure(gateway.createIntent(request())));
+
+    now.addAndGet(OPEN.toNanos());
+    provider.failWith = null;
+    gateway.createIntent(request()).get(2, TimeUnit.SECONDS);
+    assertEquals("CLOSED", gateway.circuitState());
+  }
+
+  @Test
+  void declinedRequestsDoNotTripTheCircuit() {
+    ResilientPaymentGateway gateway = guard(provider, 10, NO_DEADLINE, 1);
+    provider.failWith = new PaymentFailedException("card declined", false, null);
+
+    assertInstanceOf(PaymentFailedException.class, failure(gateway.createIntent(request())));
+    assertInstanceOf(PaymentFailedException.class, failure(gateway.createIntent(request())));
+    assertEquals("CLOSED", gateway.circuitState());
+    assertEquals(2, provider.calls);
+  }
+
+  private ResilientPaymentGateway guard(PaymentGateway delegate, int maxConcurrent, Duration deadline, int failureThreshold) {
+    return new ResilientPaymentGateway(delegate, maxConcurrent, deadline, failureThreshold, OPEN, now::get);
+  }
+
+  private static PaymentRequest request() {
+    return new PaymentRequest(1999, "usd", null, null);
+  }
+
+  // The exception the caller's future failed with
+  private static Throwable failure(CompletableFuture<?> future) {
+    return assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS)).getCause();
+  }
+
+  /** Answers from an in-memory gateway unless told to fail or to hold the answer back. */
+  private static final class ScriptedGateway implements PaymentGateway {
+
+    private final InMemoryPaymentGateway local = new InMemoryPaymentGateway(Duration.ZERO);
+    private final List<CompletableFuture<PaymentIntentResult>> held = new ArrayList<>();
+    PaymentFailedException failWith;
+    boolean hold;
+    int calls;
+
+    @Override
+    public CompletableFuture<PaymentIntentResult> createIntent(PaymentRequest request) {
+      calls++;
+      if (failWith != null) return CompletableFuture.failedFuture(failWith);
+      if (!hold) return local.createIntent(request);
+      CompletableFuture<PaymentIntentResult> answer = new CompletableFuture<>();
+      held.add(answer);
+      return answer;
+    }
+
+    void answer(int i) {
+      held.get(i).complete(local.createIntent(request()).join());
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package com.luxestore.search;
+
+import com.luxestore.dto.ProductSummary;
+import com.luxestore.event.ProductChangedEvent;
+import com.luxestore.model.Product;
+import com.luxestore.repository.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the index through change events and {@code refreshPending()} against a mocked
+ * repository; the refresher thread is never started.
+ */
+class ProductSearchIndexTest {
+
+  // What the mocked repository returns for findAllById
+  private final Map<Long, Product> table = new HashMap<>();
+  private ProductRepository repo;
+  private ProductSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    repo = mock(ProductRepository.class);
+    when(repo.findAllById(anyIterable())).thenAnswer(inv -> rows(inv.getArgument(0)));
+    index = new ProductSearchIndex(repo, null, new SimpleMeterRegistry());
+  }
+
+  @Test
+  void tokenizerFoldsCaseAccentsAndPunctuation() {
+    assertEquals(List.of("creme", "brulee", "set", "2", "pack"), SearchTokenizer.tokenize("Crème Brûlée Set (2-pack)"));
+    assertEquals(List.of(), SearchTokenizer.tokenize("  -- "));
+    assertTrue(SearchTokenizer.endsInWord("leath"));
+    assertFalse(SearchTokenizer.endsInWord("leather "));
+  }
+
+  @Test
+  void everyWordMustMatch() {
+    save(1, "Leather Tote", "Bags", 5);
+    save(2, "Leather Belt", "Accessories", 5);
+    save(3, "Canvas Tote", "Bags", 5);
+    changed(ProductChangedEvent.details(List.of(1L, 2L, 3L)));
+
+    assertEquals(List.of(1L), ids(index.search("leather tote", null, null, 10)));
+    assertEquals(Set.of(1L, 3L), Set.copyOf(ids(index.search("tote ", null, null, 10))));
+  }
+
+  @Test
+  void nameHitOutranksCategoryHit() {
+    save(1, "Silk Scarf", "Bags", 5);
+    save(2, "Bags Organiser", "Home", 5);
+    changed(ProductChangedEvent.details(List.of(1L, 2L)));
+
+    assertEquals(List.of(2L, 1L), ids(index.search("bags ", null, null, 10)));
+  }
+
+  @Test
+  void exactWordOutranksPrefixExpansion() {
+    save(1, "Gold Ring", "Jewellery", 5);
+    save(2, "Ringlet Earrings", "Jewellery", 5);
+    changed(ProductChangedEvent.details(List.of(1L, 2L)));
+
+    assertEquals(List.of(1L, 2L), ids(index.search("ring", null, null, 10)));
+  }
+
+  @Test
+  void renameReplacesTheOldTerms() {
+    save(1, "Wool Coat", "Outerwear", 5);
+    changed(ProductChangedEvent.details(List.of(1L)));
+
+    save(1, "Cashmere Coat", "Outerwear", 5);
+    changed(ProductChangedEvent.details(List.of(1L)));
+
+    assertEquals(List.of(), index.search("wool ", null, null, 10));
+    assertEquals(List.of(1L), ids(index.search("cashmere ", null, null, 10)));
+    // cashmere, coat, outerwear
+    assertEquals(3, index.terms());
+  }
+
+  @Test
+  void removedProductLeavesNoPostings() {
+    save(1, "Wool Coat", "Outerwear", 5);
+    save(2, "Rain Coat", "Outerwear", 5);
+    changed(ProductChangedEvent.details(List.of(1L, 2L)));
+
+    table.remove(1L);
+    changed(ProductChangedEvent.removed(List.of(1L)));
+
+    assertEquals(1, index.size());
+    assertEquals(List.of(), index.search("wool ", null, null, 10));
+    assertEquals(List.of(2L), ids(index.search("coat ", null, null, 10)));
+  }
+
+  @Test
+  void stockChangeMovesOnlyTheQuantity() {
+    save(1, "Wool Coat", "Outerwear", 5);
+    changed(ProductChangedEvent.details(List.of(1L)));
+
+    save(1, "Renamed Behind Our Back", "Outerwear", 0);
+    changed(ProductChangedEvent.stock(1L));
+
+    assertEquals(List.of(), index.search("wool ", null, true, 10));
+    assertEquals(List.of(1L), ids(index.search("wool ", null, false, 10)));
+  }
+
+  @Test
+  void failedRefreshIsRetried() {
+    save(1, "Wool Coat", "Outerwear", 5);
+    when(repo.findAllById(anyIterable()))
+        .thenThrow(new DataAccessResourceFailureException("database unavailable"))
+        .thenAnswer(inv -> rows(inv.getArgument(0)));
+
+    index.onProductChanged(ProductChangedEvent.details(List.of(1L)));
+    assertFalse(index.refreshPending());
+    assertEquals(0, index.size());
+
+    assertTrue(index.refreshPending());
+    assertEquals(List.of(1L), ids(index.search("wool ", null, null, 10)));
+  }
+
+  @Test
+  void suggestCompletesWithinEarlierWords() {
+    save(1, "Leather Tote", "Bags", 5);
+    save(2, "Leather Toolkit", "Home", 5);
+    save(3, "Canvas Towel", "Home", 5);
+    changed(ProductChangedEvent.details(List.of(1L, 2L, 3L)));
+
+    assertEquals(Set.of("leather tote", "leather toolkit"), Set.copyOf(index.suggest("leather to", 10)));
+    assertEquals(List.of(), index.suggest("leather to ", 10));
+  }
+
+  private void save(long id, String name, String category, int quantity) {
+    Product p = new Product(name, category, 10, quantity, null);
+    p.setId(id);
+    table.put(id, p);
+  }
+
+  private void changed(ProductChangedEvent event) {
+    index.onProductChanged(event);
+    assertTrue(index.refreshPending());
+  }
+
+  private List<Product> rows(Iterable<Long> ids) {
+    List<Product> found = new ArrayList<>();
+    for (Long id : ids) {
+      Product p = table.get(id);
+      if (p != null) found.add(p);
+    }
+    return found;
+  }
+
+  private static List<Long> ids(List<ProductSummary> hits) {
+    return hits.stream().map(ProductSummary::id).toList();
+  }
+}
@@ -0,0 +1,134 @@
+package com.luxestore.service;
+
+import com.luxestore.dto.StockReservation;
+import com.luxestore.model.Product;
+import com.luxestore.repository.ProductRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many threads decrementing one SKU against the in-memory database, no HTTP server
+ * involved: exactly the starting stock may be sold, on both the database path and the
+ * flash-sale counter path. The HTTP-level variant is the StockContentionStress benchmark.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.url=jdbc:h2:mem:stock-contention;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "outbox.enabled=false",
+    "orders.items-json-migration.enabled=false"
+})
+class StockContentionTest {
+
+  private static final int THREADS = 16;
+  private static final int STOCK = 300;
+  // Attempts each thread keeps making after it first sees the SKU sold out
+  private static final int EXTRA_ATTEMPTS = 5;
+
+  @Autowired
+  private StockReservationService stock;
+
+  @Autowired
+  private ProductRepository products;
+
+  @Test
+  void databasePathSellsExactlyTheStock() throws Exception {
+    Long id = newProduct();
+
+    int sold = hammer(() -> stock.decrement(id, 1));
+
+    assertEquals(STOCK, sold);
+    assertEquals(0, (int) products.findQuantityById(id));
+  }
+
+  @Test
+  void flashSalePathSellsExactlyTheStock() throws Exception {
+    Long id = newProduct();
+    stock.enableFlashSale(id);
+    try {
+      int sold = hammer(() -> stock.decrement(id, 1));
+
+      assertEquals(STOCK, sold);
+      assertEquals(0, (int) products.findQuantityById(id));
+    } finally {
+      stock.disableFlashSale(id);
+    }
+  }
+
+  @Test
+  void releasedHoldsAreResoldWithoutOverselling() throws Exception {
+    Long id = newProduct();
+    stock.enableFlashSale(id);
+    try {
+      // Every other hold is given back, so each unit may be taken more than once but never twice at a time
+      AtomicInteger turn = new AtomicInteger();
+      List<StockReservation> kept = new ArrayList<>();
+      hammer(() -> {
+        StockReservation r = stock.reserve(id, 1, Duration.ofMinutes(5));
+        if (turn.incrementAndGet() % 2 == 0) {
+          stock.release(r.id());
+        } else {
+          synchronized (kept) {
+            kept.add(r);
+          }
+        }
+      });
+
+      assertEquals(STOCK, kept.size());
+      assertEquals(0, (int) products.findQuantityById(id));
+      for (StockReservation r : kept) stock.commit(r.id());
+    } finally {
+      stock.disableFlashSale(id);
+    }
+  }
+
+  private Long newProduct() {
+    return products.save(new Product("Contended", "Test", 10, STOCK, null)).getId();
+  }
+
+  // Runs the action from every thread until each has seen a sell-out; returns how many succeeded
+  private static int hammer(Runnable action) throws Exception {
+    AtomicInteger succeeded = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Void>> workers = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        Callable<Void> worker = () -> {
+          start.await();
+          int extra = 0;
+          while (extra < EXTRA_ATTEMPTS) {
+            try {
+              action.run();
+              succeeded.incrementAndGet();
+            } catch (InsufficientStockException e) {
+              extra++;
+            }
+          }
+          return null;
+        };
+        workers.add(pool.submit(worker));
+      }
+      start.countDown();
+      // Any other exception fails the test here
+      for (Future<Void> w : workers) w.get(2, TimeUnit.MINUTES);
+    } finally {
+      pool.shutdownNow();
+    }
+    return succeeded.get();
+  }
+}
@@ -0,0 +1,77 @@
+package com.luxestore.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Streams a generated CSV catalog of N products into {@code POST /api/admin/products/import}
+ * without ever holding it in memory, echoes the server's NDJSON progress lines as they
+ * arrive and prints the rate. Watch the backend heap while it runs: it should stay flat.
+ *
+ * <p>Args: {@code baseUrl bearerToken [rows]}, e.g. {@code http://localhost:8081 eyJ... 1000000}. The
+ * token must belong to an admin: list the account in {@code security.admin-emails}.
+ */
+public class CatalogImportLoad {
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("usage: CatalogImportLoad baseUrl bearerToken [rows]");
+      System.exit(2);
+    }
+    String base = args[0].replaceAll("/$", "");
+    String token = args[1];
+    int rows = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+
+    PipedInputStream body = new PipedInputStream(256 * 1024);
+    PipedOutputStream sink = new PipedOutputStream(body);
+    Thread.ofVirtual().start(() -> generate(sink, rows));
+
+    HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/admin/products/import"))
+        .header("Content-Type", "text/csv")
+        .header("Authorization", "Bearer " + token)
+        .POST(HttpRequest.BodyPublishers.ofInputStream(() -> body))
+        .build();
+
+    long t0 = System.nanoTime();
+    HttpResponse<Stream<String>> response = http.send(request, HttpResponse.BodyHandlers.ofLines());
+    System.out.println("HTTP " + response.statusCode());
+    response.body().forEach(System.out::println);
+    double seconds = (System.nanoTime() - t0) / 1e9;
+    System.out.printf("%d rows in %.1fs (%.0f rows/s)%n", rows, seconds, rows / seconds);
+  }
+
+  private static void generate(OutputStream out, int rows) {
+    SplittableRandom rnd = new SplittableRandom(7);
+    String[] categories = { "clothing", "fashion", "electronics", "accessories", "home", "health", "books", "gifts" };
+    try (OutputStream o = out) {
+      StringBuilder sb = new StringBuilder(64 * 1024);
+      sb.append("name,category,price,quantity,image\n");
+      for (int i = 1; i <= rows; i++) {
+        sb.append("\"Imported product ").append(i).append(", size ").append(1 + rnd.nextInt(5)).append("\",")
+            .append(categories[rnd.nextInt(categories.length)]).append(',')
+            .append(rnd.nextInt(100, 1_000_000) / 100.0).append(',')
+            .append(rnd.nextInt(500)).append(',')
+            .append("https://cdn.example.com/p/").append(i).append(".jpg\n");
+        if (sb.length() > 60 * 1024) {
+          o.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+          sb.setLength(0);
+        }
+      }
+      o.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
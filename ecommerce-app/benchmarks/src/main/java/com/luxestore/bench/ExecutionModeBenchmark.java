@@ -0,0 +1,142 @@
+package com.luxestore.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a mixed catalog / cart / payment / checkout load at a running backend and prints
+ * per-endpoint throughput and latency. Run it once against a backend started with
+ * {@code --server.execution-mode=platform} and once with {@code --server.execution-mode=virtual},
+ * both pointed at {@link StripeStubServer} ({@code --stripe.api-base=http://localhost:12111}),
+ * and compare. The payment calls hold a request thread for the stub's delay, so in platform
+ * mode enough of them exhaust the Tomcat pool and catalog latency climbs with them; in virtual
+ * mode catalog latency should stay flat and payment throughput should scale with concurrency.
+ *
+ * <p>Args: {@code baseUrl [clients] [seconds] [userIds] [productId]}, e.g.
+ * {@code http://localhost:8081 400 30 1-50 1}. Pass {@code --stub[=port[:delayMillis]]} as the
+ * first argument to start the Stripe stub in this JVM as well.
+ */
+public class ExecutionModeBenchmark {
+
+  private enum Op { CATALOG, CART, PAYMENT, CHECKOUT }
+
+  public static void main(String[] args) throws Exception {
+    List<String> rest = new ArrayList<>(List.of(args));
+    if (!rest.isEmpty() && rest.get(0).startsWith("--stub")) {
+      String spec = rest.remove(0).replaceFirst("^--stub=?", "");
+      String[] parts = spec.isEmpty() ? new String[0] : spec.split(":");
+      int port = parts.length > 0 ? Integer.parseInt(parts[0]) : 12111;
+      long delay = parts.length > 1 ? Long.parseLong(parts[1]) : 300;
+      StripeStubServer.start(port, delay);
+      System.out.printf("started Stripe stub on :%d (%dms)%n", port, delay);
+    }
+    if (rest.isEmpty()) {
+      System.err.println("usage: ExecutionModeBenchmark [--stub[=port[:delayMillis]]] baseUrl [clients] [seconds] [userIds] [productId]");
+      System.exit(2);
+    }
+    String base = rest.get(0).replaceAll("/$", "");
+    int clients = rest.size() > 1 ? Integer.parseInt(rest.get(1)) : 400;
+    int seconds = rest.size() > 2 ? Integer.parseInt(rest.get(2)) : 30;
+    String[] range = (rest.size() > 3 ? rest.get(3) : "1-50").split("-");
+    long firstUser = Long.parseLong(range[0]);
+    long lastUser = range.length > 1 ? Long.parseLong(range[1]) : firstUser;
+    long productId = rest.size() > 4 ? Long.parseLong(rest.get(4)) : 1;
+
+    HttpClient http = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .build();
+
+    Map<Op, List<Long>> latencies = new ConcurrentHashMap<>();
+    Map<Op, Map<Integer, AtomicLong>> statuses = new ConcurrentHashMap<>();
+    for (Op op : Op.values()) {
+      latencies.put(op, Collections.synchronizedList(new ArrayList<>()));
+      statuses.put(op, new ConcurrentHashMap<>());
+    }
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+    for (int c = 0; c < clients; c++) {
+      // Roughly 50% catalog, 20% cart, 20% payment, 10% checkout, fixed per client.
+      int slot = c % 10;
+      Op op = slot < 5 ? Op.CATALOG : slot < 7 ? Op.CART : slot < 9 ? Op.PAYMENT : Op.CHECKOUT;
+      long userId = firstUser + c % (lastUser - firstUser + 1);
+      pool.submit(() -> {
+        while (running.get()) {
+          long t0 = System.nanoTime();
+          int status = run(http, base, op, userId, productId);
+          statuses.get(op).computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+          if (status >= 200 && status < 300) latencies.get(op).add(System.nanoTime() - t0);
+        }
+      });
+    }
+
+    TimeUnit.SECONDS.sleep(seconds);
+    running.set(false);
+    pool.shutdown();
+    pool.awaitTermination(60, TimeUnit.SECONDS);
+
+    System.out.printf("%d clients for %ds against %s%n", clients, seconds, base);
+    for (Op op : Op.values()) {
+      report(op, latencies.get(op), seconds, new TreeMap<>(statuses.get(op)));
+    }
+  }
+
+  private static int run(HttpClient http, String base, Op op, long userId, long productId) {
+    return switch (op) {
+      case CATALOG -> send(http, HttpRequest.newBuilder(URI.create(base + "/api/products")).GET().build());
+      case CART -> send(http, HttpRequest.newBuilder(URI.create(base + "/api/cart/" + userId + "/view")).GET().build());
+      case PAYMENT -> send(http, post(base + "/api/payment/create-payment-intent", "{\"amount\":5000}"));
+      case CHECKOUT -> {
+        int added = send(http, post(base + "/api/cart",
+            "{\"userId\":" + userId + ",\"productId\":" + productId + ",\"quantity\":1}"));
+        yield added >= 300 ? added : send(http, post(base + "/api/orders/checkout/" + userId, ""));
+      }
+    };
+  }
+
+  private static HttpRequest post(String url, String json) {
+    return HttpRequest.newBuilder(URI.create(url))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(json))
+        .build();
+  }
+
+  private static void report(Op op, List<Long> latencies, int seconds, Map<Integer, AtomicLong> statuses) {
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    if (sorted.isEmpty()) {
+      System.out.printf("%-8s no successful requests, statuses=%s%n", op, statuses);
+      return;
+    }
+    System.out.printf("%-8s %8.1f req/s p50=%.2fms p99=%.2fms max=%.2fms statuses=%s%n", op,
+        sorted.size() / (double) seconds, pct(sorted, 0.50), pct(sorted, 0.99),
+        sorted.get(sorted.size() - 1) / 1e6, statuses);
+  }
+
+  private static double pct(List<Long> sorted, double p) {
+    return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1)) / 1e6;
+  }
+
+  private static int send(HttpClient http, HttpRequest req) {
+    try {
+      return http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (Exception e) {
+      return -1;
+    }
+  }
+}
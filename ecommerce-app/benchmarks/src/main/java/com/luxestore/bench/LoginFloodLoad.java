@@ -0,0 +1,157 @@
+package com.luxestore.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures catalog latency ({@code GET /api/products}) first on its own, then while other
+ * threads flood {@code POST /api/auth/login} with wrong passwords. With hashing on its own
+ * bounded pool, catalog p99 under flood should stay close to the baseline; the login side
+ * should see mostly 401/503 rather than timeouts.
+ *
+ * <p>The flood targets accounts the tool signs up first ({@code flood-<n>@bench.local}), so
+ * every attempt that gets past the throttle reaches BCrypt. All requests come from one address,
+ * and the default login throttle would answer nearly all of them with 429 after the first 20.
+ * Start the server with the throttle raised for the run:
+ * <pre>
+ * --security.login-rate.ip.capacity=1000000 --security.login-rate.ip.refill-per-minute=1000000
+ * --security.login-rate.email.capacity=1000000 --security.login-rate.email.refill-per-minute=1000000
+ * </pre>
+ *
+ * <p>Args: {@code baseUrl [catalogThreads] [floodThreads] [seconds] [users]}, e.g.
+ * {@code http://localhost:8081 8 200 20 200}.
+ */
+public class LoginFloodLoad {
+
+  private static final String PASSWORD = "flood-password-1";
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println("usage: LoginFloodLoad baseUrl [catalogThreads] [floodThreads] [seconds]");
+      System.exit(2);
+    }
+    String base = args[0].replaceAll("/$", "");
+    int catalogThreads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    int floodThreads = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+    int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+    int users = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+
+    HttpClient http = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(Executors.newCachedThreadPool())
+        .build();
+
+    seedUsers(http, base, users);
+    List<Long> baseline = catalogPhase(http, base, catalogThreads, seconds, 0, users);
+    List<Long> flooded = catalogPhase(http, base, catalogThreads, seconds, floodThreads, users);
+
+    report("catalog baseline", baseline);
+    report("catalog during login flood", flooded);
+  }
+
+  // Signup hashes too, so a saturated pool answers 503; those are retried. Any other answer
+  // means the account exists, either just created or left over from an earlier run.
+  private static void seedUsers(HttpClient http, String base, int users) throws InterruptedException {
+    for (int i = 0; i < users; i++) {
+      String body = "{\"name\":\"Flood " + i + "\",\"email\":\"" + email(i) + "\",\"password\":\"" + PASSWORD + "\"}";
+      HttpRequest signup = HttpRequest.newBuilder(URI.create(base + "/api/auth/signup"))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(body))
+          .build();
+      int status;
+      for (int attempt = 0; (status = send(http, signup)) == 503 || status == -1; attempt++) {
+        if (attempt == 10) throw new IllegalStateException("could not sign up " + email(i) + ": status " + status);
+        TimeUnit.MILLISECONDS.sleep(100L << Math.min(attempt, 4));
+      }
+    }
+    System.out.println("seeded " + users + " login accounts");
+  }
+
+  private static String email(int n) {
+    return "flood-" + n + "@bench.local";
+  }
+
+  private static List<Long> catalogPhase(HttpClient http, String base, int catalogThreads, int seconds,
+                                         int floodThreads, int users) throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+    Map<Integer, AtomicLong> loginStatuses = new ConcurrentHashMap<>();
+    ExecutorService pool = Executors.newFixedThreadPool(catalogThreads + floodThreads);
+
+    HttpRequest catalog = HttpRequest.newBuilder(URI.create(base + "/api/products")).GET().build();
+    for (int i = 0; i < catalogThreads; i++) {
+      pool.submit(() -> {
+        while (running.get()) {
+          long t0 = System.nanoTime();
+          int status = send(http, catalog);
+          if (status == 200) latencies.add(System.nanoTime() - t0);
+        }
+      });
+    }
+    for (int i = 0; i < floodThreads; i++) {
+      int n = i;
+      pool.submit(() -> {
+        long k = 0;
+        while (running.get()) {
+          String account = email((int) ((n + k++ * floodThreads) % users));
+          String body = "{\"email\":\"" + account + "\",\"password\":\"wrong\"}";
+          HttpRequest login = HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+              .header("Content-Type", "application/json")
+              .POST(HttpRequest.BodyPublishers.ofString(body))
+              .build();
+          loginStatuses.computeIfAbsent(send(http, login), s -> new AtomicLong()).incrementAndGet();
+        }
+      });
+    }
+
+    TimeUnit.SECONDS.sleep(seconds);
+    running.set(false);
+    pool.shutdown();
+    pool.awaitTermination(30, TimeUnit.SECONDS);
+    if (floodThreads > 0) {
+      System.out.println("login responses by status: " + loginStatuses);
+      long throttled = loginStatuses.getOrDefault(429, new AtomicLong()).get();
+      long total = loginStatuses.values().stream().mapToLong(AtomicLong::get).sum();
+      if (throttled * 2 > total) {
+        System.out.println("warning: most logins were throttled before hashing; raise security.login-rate.* on the server");
+      }
+    }
+    return latencies;
+  }
+
+  private static void report(String label, List<Long> latencies) {
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    if (sorted.isEmpty()) {
+      System.out.println(label + ": no successful requests");
+      return;
+    }
+    System.out.printf("%s: n=%d p50=%.2fms p99=%.2fms max=%.2fms%n", label, sorted.size(),
+        pct(sorted, 0.50), pct(sorted, 0.99), sorted.get(sorted.size() - 1) / 1e6);
+  }
+
+  private static double pct(List<Long> sorted, double p) {
+    return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1)) / 1e6;
+  }
+
+  private static int send(HttpClient http, HttpRequest req) {
+    try {
+      return http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (Exception e) {
+      return -1;
+    }
+  }
+}
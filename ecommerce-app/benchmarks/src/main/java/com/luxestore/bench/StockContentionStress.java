@@ -0,0 +1,139 @@
+package com.luxestore.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hammers {@code PUT /api/products/{id}/decrease?qty=1} from many threads on one SKU until
+ * it sells out, then checks that exactly the starting stock was sold: the number of
+ * successful decrements must equal the drop in quantity, and quantity must end at zero.
+ * Exits non-zero on oversell or lost updates, and also when the run gives up: after
+ * {@value #MAX_ERRORS} failed requests (other than 409) or once {@code maxSeconds} have
+ * passed without a sell-out. The same invariant is checked without a server by
+ * {@code StockContentionTest} in the backend.
+ *
+ * <p>Args: {@code baseUrl productId [threads] [flash] [maxSeconds]}, e.g.
+ * {@code http://localhost:8081 1 64 flash 300}. Passing {@code flash} switches the SKU into
+ * flash-sale mode first so the striped in-memory counter path is exercised too; that goes
+ * through {@code PUT /api/admin/products/{id}/flash-sale}, so set {@code ADMIN_TOKEN} to a
+ * bearer token of an account listed in {@code security.admin-emails}.
+ */
+public class StockContentionStress {
+
+  static final int MAX_ERRORS = 1000;
+  private static final Pattern QUANTITY = Pattern.compile("\"quantity\"\\s*:\\s*(-?\\d+)");
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("usage: StockContentionStress baseUrl productId [threads] [flash] [maxSeconds]");
+      System.exit(2);
+    }
+    String base = args[0].replaceAll("/$", "");
+    long productId = Long.parseLong(args[1]);
+    int threads = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+    boolean flash = args.length > 3 && "flash".equalsIgnoreCase(args[3]);
+    int maxSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 300;
+
+    HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    if (flash) {
+      String token = System.getenv("ADMIN_TOKEN");
+      if (token == null || token.isBlank()) {
+        System.err.println("flash mode needs ADMIN_TOKEN set to an admin's bearer token");
+        System.exit(2);
+      }
+      int status = send(http, HttpRequest.newBuilder(URI.create(base + "/api/admin/products/" + productId + "/flash-sale"))
+          .header("Authorization", "Bearer " + token)
+          .PUT(HttpRequest.BodyPublishers.noBody()).build());
+      // Otherwise the run would quietly measure the database path instead
+      if (status != 200) {
+        System.err.println("Cannot switch product " + productId + " to flash-sale mode: HTTP " + status);
+        System.exit(1);
+      }
+    }
+    int initial = quantity(http, base, productId);
+    System.out.printf("product %d starts with %d units, %d threads%s%n", productId, initial, threads, flash ? ", flash-sale" : "");
+
+    AtomicLong sold = new AtomicLong();
+    AtomicLong rejected = new AtomicLong();
+    AtomicLong errors = new AtomicLong();
+    AtomicBoolean soldOut = new AtomicBoolean();
+    AtomicBoolean gaveUp = new AtomicBoolean();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    HttpRequest decrease = HttpRequest.newBuilder(URI.create(base + "/api/products/" + productId + "/decrease?qty=1"))
+        .PUT(HttpRequest.BodyPublishers.noBody()).build();
+
+    long t0 = System.nanoTime();
+    long deadline = t0 + TimeUnit.SECONDS.toNanos(maxSeconds);
+    for (int t = 0; t < threads; t++) {
+      pool.submit(() -> {
+        start.await();
+        // Keep going a little past sell-out so late writers also race the empty row
+        int extra = 0;
+        while (!soldOut.get() || extra++ < 5) {
+          if (errors.get() >= MAX_ERRORS || System.nanoTime() - deadline > 0) {
+            if (!soldOut.get()) gaveUp.set(true);
+            break;
+          }
+          int status = send(http, decrease);
+          if (status == 200) sold.incrementAndGet();
+          else if (status == 409) { rejected.incrementAndGet(); soldOut.set(true); }
+          else errors.incrementAndGet();
+        }
+        return null;
+      });
+    }
+
+    start.countDown();
+    pool.shutdown();
+    // Each thread stops by the deadline plus one request, which the connect timeout bounds
+    if (!pool.awaitTermination(maxSeconds + 60L, TimeUnit.SECONDS)) pool.shutdownNow();
+    double seconds = (System.nanoTime() - t0) / 1e9;
+
+    int remaining = quantity(http, base, productId);
+    long attempts = sold.get() + rejected.get() + errors.get();
+    System.out.printf("sold=%d rejected=%d errors=%d remaining=%d%n", sold.get(), rejected.get(), errors.get(), remaining);
+    System.out.printf("%.0f requests/s, %.0f successful decrements/s over %.2fs%n",
+        attempts / seconds, sold.get() / seconds, seconds);
+
+    if (gaveUp.get()) {
+      System.out.printf("ABORTED: %s before sell-out%n",
+          errors.get() >= MAX_ERRORS ? errors.get() + " failed requests" : "no sell-out within " + maxSeconds + "s");
+      // Even a run cut short must not have oversold or lost an update
+      if (remaining < 0 || sold.get() != initial - remaining) System.out.println("FAIL: stock accounting mismatch");
+      System.exit(1);
+    }
+    boolean ok = remaining == 0 && sold.get() == initial;
+    System.out.println(ok ? "OK: no oversell, no lost updates" : "FAIL: stock accounting mismatch");
+    System.exit(ok ? 0 : 1);
+  }
+
+  private static int quantity(HttpClient http, String base, long productId) throws Exception {
+    HttpResponse<String> res = http.send(HttpRequest.newBuilder(URI.create(base + "/api/products/" + productId)).GET().build(),
+        HttpResponse.BodyHandlers.ofString());
+    Matcher m = QUANTITY.matcher(res.body());
+    if (res.statusCode() != 200 || !m.find()) {
+      throw new IllegalStateException("Cannot read product " + productId + ": HTTP " + res.statusCode());
+    }
+    return Integer.parseInt(m.group(1));
+  }
+
+  private static int send(HttpClient http, HttpRequest req) {
+    try {
+      return http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (Exception e) {
+      return -1;
+    }
+  }
+}
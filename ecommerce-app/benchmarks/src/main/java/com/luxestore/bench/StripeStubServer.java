@@ -0,0 +1,64 @@
+package com.luxestore.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal stand-in for the Stripe API: answers {@code POST /v1/payment_intents} with a fake
+ * payment intent after a fixed delay, so a checkout-heavy load spends most of its time
+ * blocked on the network like it would against the real gateway. Start the backend with
+ * {@code --stripe.api-base=http://localhost:<port>}.
+ *
+ * <p>Args: {@code [port] [delayMillis]}, default {@code 12111 300}. Can also be started
+ * in-process via {@link #start(int, long)}.
+ */
+public class StripeStubServer {
+
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 12111;
+    long delayMillis = args.length > 1 ? Long.parseLong(args[1]) : 300;
+    start(port, delayMillis);
+    System.out.printf("Stripe stub listening on :%d with %dms latency%n", port, delayMillis);
+  }
+
+  public static HttpServer start(int port, long delayMillis) throws IOException {
+    AtomicLong ids = new AtomicLong();
+    HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    server.createContext("/v1/payment_intents", exchange -> {
+      try (exchange) {
+        drain(exchange.getRequestBody());
+        TimeUnit.MILLISECONDS.sleep(delayMillis);
+        long id = ids.incrementAndGet();
+        respond(exchange, 200, """
+            {"id":"pi_stub_%1$d","object":"payment_intent","status":"requires_payment_method",\
+            "client_secret":"pi_stub_%1$d_secret_stub","currency":"usd","livemode":false}""".formatted(id));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    server.start();
+    return server;
+  }
+
+  private static void drain(InputStream in) throws IOException {
+    in.transferTo(OutputStream.nullOutputStream());
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.getResponseHeaders().set("Request-Id", "req_stub");
+    exchange.sendResponseHeaders(status, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+}
@@ -0,0 +1,95 @@
+package com.luxestore.bench.jmh;
+
+import com.luxestore.inventory.InventoryIndex;
+import com.luxestore.model.Product;
+import com.luxestore.service.ProductCatalogService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price/stock lookups and category scans served by the off-heap {@link InventoryIndex}
+ * against the same reads through the entity cache. Run with {@code -prof gc} to compare
+ * allocation per operation, e.g. {@code -Djmh.args="InventoryIndex -prof gc -p products=1000000"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class InventoryIndexBenchmark {
+
+  @Param({"200000"})
+  int products;
+
+  private ConfigurableApplicationContext ctx;
+  private InventoryIndex index;
+  private ProductCatalogService catalog;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ctx = Seed.start();
+    Seed.populate(ctx.getBean(JdbcTemplate.class), products, 10, 0, 0);
+    index = ctx.getBean(InventoryIndex.class);
+    // Seeding bypasses the product events, so load the index from the table again
+    index.rebuild();
+    catalog = ctx.getBean(ProductCatalogService.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    ctx.close();
+  }
+
+  @Benchmark
+  public double priceFromIndex() {
+    return index.price(1 + random(products));
+  }
+
+  /** Same lookup through the read-through entity cache; misses go to the database. */
+  @Benchmark
+  public double priceFromCatalogCache() {
+    return catalog.findById((long) 1 + random(products)).map(Product::getPrice).orElse(Double.NaN);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int inStockInCategoryFromIndex() {
+    int[] inStock = new int[1];
+    index.forEachInCategory(Seed.category(random(Seed.categories())), (id, price, quantity) -> {
+      if (quantity > 0) inStock[0]++;
+    });
+    return inStock[0];
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int inStockInCategoryFromCatalogCache() {
+    int inStock = 0;
+    for (Product p : catalog.findByCategory(Seed.category(random(Seed.categories())))) {
+      if (p.getQuantity() > 0) inStock++;
+    }
+    return inStock;
+  }
+
+  private static int random(int bound) {
+    return ThreadLocalRandom.current().nextInt(bound);
+  }
+}
@@ -0,0 +1,79 @@
+package com.luxestore.bench.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files (e.g. from two commits) benchmark by benchmark and
+ * exits with status 1 if any benchmark got slower by more than the threshold, so it can
+ * gate a CI job. For time-per-op modes a higher score is a slowdown; for throughput
+ * results the sign is flipped.
+ *
+ * <p>Args: {@code baseline.json candidate.json [thresholdPercent]}, default threshold 10.
+ */
+public class JmhCompare {
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("usage: JmhCompare baseline.json candidate.json [thresholdPercent]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+    ObjectMapper mapper = new ObjectMapper();
+    Map<String, JsonNode> baseline = index(mapper.readTree(new File(args[0])));
+    Map<String, JsonNode> candidate = index(mapper.readTree(new File(args[1])));
+
+    int regressions = 0;
+    System.out.printf("%-70s %14s %14s %9s%n", "benchmark", "baseline", "candidate", "change");
+    for (Map.Entry<String, JsonNode> e : candidate.entrySet()) {
+      JsonNode before = baseline.get(e.getKey());
+      JsonNode after = e.getValue();
+      String unit = after.path("primaryMetric").path("scoreUnit").asText();
+      double newScore = after.path("primaryMetric").path("score").asDouble();
+      if (before == null) {
+        System.out.printf("%-70s %14s %14.3f %9s  %s%n", e.getKey(), "-", newScore, "new", unit);
+        continue;
+      }
+      double oldScore = before.path("primaryMetric").path("score").asDouble();
+      double change = (newScore - oldScore) / oldScore * 100;
+      // For throughput a lower score is the regression
+      double slowdown = "thrpt".equals(after.path("mode").asText()) ? -change : change;
+      boolean regressed = slowdown > threshold;
+      if (regressed) regressions++;
+      System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%s%n", e.getKey(), oldScore, newScore, change, unit,
+          regressed ? "  REGRESSION" : "");
+    }
+    for (String name : baseline.keySet()) {
+      if (!candidate.containsKey(name)) System.out.printf("%-70s %14s %14s %9s%n", name, "", "-", "missing");
+    }
+    if (regressions > 0) {
+      System.out.printf("%d benchmark(s) slower by more than %.1f%%%n", regressions, threshold);
+      System.exit(1);
+    }
+  }
+
+  // Keyed by benchmark method plus its @Param values, e.g. "...productList{products=1000}"
+  private static Map<String, JsonNode> index(JsonNode results) {
+    Map<String, JsonNode> byName = new LinkedHashMap<>();
+    for (JsonNode r : results) {
+      StringBuilder key = new StringBuilder(r.path("benchmark").asText().replace("com.luxestore.bench.jmh.", ""));
+      JsonNode params = r.path("params");
+      if (params.isObject() && params.size() > 0) {
+        key.append('{');
+        Iterator<Map.Entry<String, JsonNode>> it = params.fields();
+        while (it.hasNext()) {
+          Map.Entry<String, JsonNode> p = it.next();
+          key.append(p.getKey()).append('=').append(p.getValue().asText()).append(it.hasNext() ? "," : "");
+        }
+        key.append('}');
+      }
+      byName.put(key.toString(), r);
+    }
+    return byName;
+  }
+}
@@ -0,0 +1,60 @@
+package com.luxestore.bench.jmh;
+
+import com.luxestore.security.JwtUtils;
+
+import io.jsonwebtoken.Claims;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login and the signature/expiry check {@code JwtAuthenticationFilter} does on
+ * a claims-cache miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtBenchmark {
+
+  private JwtUtils jwt;
+  private String token;
+  private String tampered;
+
+  @Setup
+  public void setup() {
+    jwt = new JwtUtils();
+    token = jwt.generateToken("shopper@example.com", List.of("ROLE_USER"));
+    // Flip one signature character so verification runs to the end and fails
+    char last = token.charAt(token.length() - 1);
+    tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+  }
+
+  @Benchmark
+  public String generate() {
+    return jwt.generateToken("shopper@example.com", List.of("ROLE_USER"));
+  }
+
+  @Benchmark
+  public Claims parse() {
+    return jwt.parseClaims(token);
+  }
+
+  @Benchmark
+  public boolean validateTampered() {
+    return jwt.validateToken(tampered);
+  }
+}
@@ -0,0 +1,174 @@
+package com.luxestore.bench.jmh;
+
+import com.luxestore.analytics.SalesAnalyticsService;
+import com.luxestore.dto.CartLineRow;
+import com.luxestore.dto.OrderPage;
+import com.luxestore.dto.OrderQuery;
+import com.luxestore.dto.OrderSummary;
+import com.luxestore.dto.ProductPage;
+import com.luxestore.dto.ProductQuery;
+import com.luxestore.dto.ProductSales;
+import com.luxestore.dto.ProductSort;
+import com.luxestore.dto.RevenueBucket;
+import com.luxestore.model.CartItem;
+import com.luxestore.model.Product;
+import com.luxestore.model.User;
+import com.luxestore.repository.CartRepository;
+import com.luxestore.repository.OrderRepository;
+import com.luxestore.repository.ProductRepository;
+import com.luxestore.repository.UserRepository;
+import com.luxestore.service.CartService;
+import com.luxestore.service.ProductCatalogService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The queries behind the catalog, cart, login and order-history endpoints, run through the
+ * application's own repositories and services against a seeded H2 (see {@link Seed}).
+ * Row counts are parameters: {@code -p products=200000 -p users=50000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class RepositoryBenchmark {
+
+  @Param({"50000"})
+  int products;
+
+  @Param({"10000"})
+  int users;
+
+  private ConfigurableApplicationContext ctx;
+  private ProductRepository productRepo;
+  private ProductCatalogService catalog;
+  private CartRepository cartRepo;
+  private CartService carts;
+  private UserRepository userRepo;
+  private OrderRepository orderRepo;
+  private SalesAnalyticsService analytics;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    ctx = Seed.start();
+    Seed.populate(ctx.getBean(JdbcTemplate.class), products, users, 5, 5);
+    productRepo = ctx.getBean(ProductRepository.class);
+    catalog = ctx.getBean(ProductCatalogService.class);
+    cartRepo = ctx.getBean(CartRepository.class);
+    carts = ctx.getBean(CartService.class);
+    userRepo = ctx.getBean(UserRepository.class);
+    orderRepo = ctx.getBean(OrderRepository.class);
+    analytics = ctx.getBean(SalesAnalyticsService.class);
+    // Seeded orders bypass the outbox, so count them the way a first start would
+    analytics.rebuild();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    ctx.close();
+  }
+
+  /** {@code GET /api/products} when the catalog cache is warm. */
+  @Benchmark
+  public List<Product> catalogAllCached() {
+    return catalog.findAll();
+  }
+
+  /** {@code GET /api/products} on a cache miss: every row, mapped to entities. */
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public List<Product> productFindAll() {
+    return productRepo.findAll();
+  }
+
+  @Benchmark
+  public List<Product> productsByCategory() {
+    return productRepo.findByCategory(Seed.category(random(Seed.categories())));
+  }
+
+  /** One keyset page of {@code GET /api/products/page?category=..&sort=PRICE}. */
+  @Benchmark
+  public ProductPage productPageByPrice() {
+    ProductQuery q = new ProductQuery();
+    q.setCategory(Seed.category(random(Seed.categories())));
+    q.setSort(ProductSort.PRICE);
+    return productRepo.findPage(q);
+  }
+
+  @Benchmark
+  public List<CartLineRow> cartLines() {
+    return cartRepo.findLinesWithProducts((long) 1 + random(users));
+  }
+
+  /** {@code POST /api/cart}: the MERGE upsert plus the read-back. */
+  @Benchmark
+  public CartItem cartAdd() {
+    return carts.add(new CartItem((long) 1 + random(users), (long) 1 + random(products), 1));
+  }
+
+  /** The user lookup {@code POST /api/auth/login} does before checking the password. */
+  @Benchmark
+  public Optional<User> userByEmail() {
+    return userRepo.findByEmail(Seed.email(1 + random(users)));
+  }
+
+  @Benchmark
+  public List<OrderSummary> orderSummaries() {
+    return orderRepo.findSummariesByUserId((long) 1 + random(users));
+  }
+
+  /** First page of {@code GET /api/orders/{userId}/page}: a range scan on the user/date index. */
+  @Benchmark
+  public OrderPage orderHistoryPage() {
+    OrderQuery q = new OrderQuery();
+    q.setUserId((long) 1 + random(users));
+    q.setLimit(3);
+    return orderRepo.findPage(q);
+  }
+
+  /** {@code GET /api/admin/analytics/revenue?bucket=week} over the last year. */
+  @Benchmark
+  public List<RevenueBucket> revenueByWeek() {
+    LocalDate today = LocalDate.now(analytics.zone());
+    return analytics.revenue(today.minusYears(1), today, SalesAnalyticsService.Bucket.WEEK);
+  }
+
+  @Benchmark
+  public List<ProductSales> topProducts() {
+    return analytics.topProducts(10);
+  }
+
+  /** {@code POST /api/admin/analytics/rebuild}: the fork/join pass over every order and line. */
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Map<String, Object> rollupRebuild() {
+    return analytics.rebuild();
+  }
+
+  private static int random(int bound) {
+    return ThreadLocalRandom.current().nextInt(bound);
+  }
+}
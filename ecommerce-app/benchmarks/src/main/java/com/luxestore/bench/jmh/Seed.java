@@ -0,0 +1,112 @@
+package com.luxestore.bench.jmh;
+
+import com.luxestore.EcommerceApplication;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Starts the real application on a private in-memory H2 database and fills it with a
+ * deterministic data set, so repository benchmarks run the production queries against
+ * realistic row counts and index selectivity.
+ */
+final class Seed {
+
+  private static final String[] CATEGORIES = {
+      "Watches", "Handbags", "Jewellery", "Sunglasses", "Perfume", "Shoes", "Scarves", "Belts", "Wallets", "Pens",
+      "Cufflinks", "Ties", "Luggage", "Candles", "Tableware", "Glassware", "Throws", "Stationery", "Gloves", "Hats"
+  };
+  private static final int BATCH = 1000;
+
+  private Seed() {}
+
+  static String category(int i) {
+    return CATEGORIES[Math.floorMod(i, CATEGORIES.length)];
+  }
+
+  static int categories() {
+    return CATEGORIES.length;
+  }
+
+  static String email(int user) {
+    return "user" + user + "@example.com";
+  }
+
+  static ConfigurableApplicationContext start() {
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    return SpringApplication.run(EcommerceApplication.class,
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+        "--spring.jpa.show-sql=false",
+        "--spring.h2.console.enabled=false",
+        "--logging.level.root=WARN",
+        "--orders.items-json-migration.enabled=false",
+        "--payment.gateway=in-memory");
+  }
+
+  /**
+   * Users 1..users each get {@code cartLines} cart lines and {@code ordersPerUser} orders of
+   * three lines. Ids are assigned here; the benchmarks never insert through Hibernate.
+   */
+  static void populate(JdbcTemplate jdbc, int products, int users, int cartLines, int ordersPerUser) {
+    SplittableRandom rnd = new SplittableRandom(42);
+
+    List<Object[]> rows = new ArrayList<>(BATCH);
+    for (int i = 1; i <= products; i++) {
+      rows.add(new Object[] { (long) i, "Product " + i, category(i), 10 + rnd.nextInt(200_000) / 100.0,
+          rnd.nextInt(100), "https://cdn.example.com/images/products/" + i + ".jpg" });
+      rows = flush(jdbc, "INSERT INTO product (id, name, category, price, quantity, image) VALUES (?, ?, ?, ?, ?, ?)", rows, i == products);
+    }
+
+    List<Object[]> roles = new ArrayList<>(BATCH);
+    for (int u = 1; u <= users; u++) {
+      // Not a real hash: the repository benchmarks never check passwords
+      rows.add(new Object[] { (long) u, "User " + u, email(u), "$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchm", "1 Main St", "555-0100" });
+      roles.add(new Object[] { (long) u, "ROLE_USER" });
+      rows = flush(jdbc, "INSERT INTO users (id, name, email, password, address, phone) VALUES (?, ?, ?, ?, ?, ?)", rows, u == users);
+      roles = flush(jdbc, "INSERT INTO user_roles (user_id, roles) VALUES (?, ?)", roles, u == users);
+    }
+
+    for (int u = 1; u <= users; u++) {
+      long first = 1 + rnd.nextInt(products - cartLines);
+      for (int c = 0; c < cartLines; c++) {
+        rows.add(new Object[] { (long) u, first + c, 1 + rnd.nextInt(3) });
+      }
+      rows = flush(jdbc, "INSERT INTO cart_item (user_id, product_id, quantity) VALUES (?, ?, ?)", rows, u == users);
+    }
+
+    List<Object[]> lines = new ArrayList<>(BATCH);
+    long orderId = 0;
+    long lineId = 0;
+    long now = System.currentTimeMillis();
+    for (int u = 1; u <= users; u++) {
+      for (int o = 0; o < ordersPerUser; o++) {
+        orderId++;
+        double total = 0;
+        for (int l = 0; l < 3; l++) {
+          int product = 1 + rnd.nextInt(products);
+          double price = 10 + rnd.nextInt(200_000) / 100.0;
+          int qty = 1 + rnd.nextInt(3);
+          total += price * qty;
+          lines.add(new Object[] { ++lineId, orderId, (long) product, "Product " + product, category(product), qty, price });
+        }
+        rows.add(new Object[] { orderId, (long) u, new Timestamp(now - rnd.nextLong(365L * 24 * 3600 * 1000)), total });
+      }
+      rows = flush(jdbc, "INSERT INTO orders (id, user_id, order_date, total) VALUES (?, ?, ?, ?)", rows, u == users);
+      lines = flush(jdbc, "INSERT INTO order_lines (id, order_id, product_id, product_name, category, quantity, unit_price) "
+          + "VALUES (?, ?, ?, ?, ?, ?, ?)", lines, u == users);
+    }
+  }
+
+  private static List<Object[]> flush(JdbcTemplate jdbc, String sql, List<Object[]> rows, boolean last) {
+    if (rows.size() < BATCH && !last) return rows;
+    if (!rows.isEmpty()) jdbc.batchUpdate(sql, rows);
+    return new ArrayList<>(BATCH);
+  }
+}
@@ -0,0 +1,74 @@
+package com.luxestore.bench.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luxestore.model.CartItem;
+import com.luxestore.model.Product;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response-body cost of {@code GET /api/products} and the cart endpoints: entity lists to JSON
+ * bytes with an ObjectMapper built the way Spring MVC builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SerializationBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  int products;
+
+  @Param({"20"})
+  int cartItems;
+
+  private ObjectMapper mapper;
+  private List<Product> productList;
+  private List<CartItem> cartList;
+
+  @Setup
+  public void setup() {
+    mapper = Jackson2ObjectMapperBuilder.json().build();
+    productList = new ArrayList<>(products);
+    for (int i = 0; i < products; i++) {
+      Product p = new Product("Product " + i + " with a realistic name", Seed.category(i), 10 + (i % 500) * 1.25,
+          i % 40, "https://cdn.example.com/images/products/" + i + ".jpg");
+      p.setId((long) i + 1);
+      productList.add(p);
+    }
+    cartList = new ArrayList<>(cartItems);
+    for (int i = 0; i < cartItems; i++) {
+      CartItem ci = new CartItem(42L, (long) i + 1, 1 + i % 3);
+      ci.setId((long) i + 1);
+      ci.setImageurl("https://cdn.example.com/images/products/" + i + ".jpg");
+      cartList.add(ci);
+    }
+  }
+
+  @Benchmark
+  public byte[] productList() throws Exception {
+    return mapper.writeValueAsBytes(productList);
+  }
+
+  @Benchmark
+  public byte[] cartItemList() throws Exception {
+    return mapper.writeValueAsBytes(cartList);
+  }
+}
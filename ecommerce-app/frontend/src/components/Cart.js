@@ -32,29 +32,11 @@ const Cart = ({ user, cart: propCart, reloadCart, setCurrentView }) => {
       alert("Cart empty");
       return;
     }
-    const total = cart.reduce(
-      (s, i) => s + (i.product?.price || i.price) * i.quantity,
-      0
-    );
-    const items = cart.map((i) => ({
-      productId: i.product?.id || i.productId,
-      quantity: i.quantity,
-      price: i.product?.price || i.price,
-    }));
-    await fetch(`${API}/orders`, {
-      method: "POST",
-      headers: { "Content-Type": "application/json" },
-      body: JSON.stringify({
-        userId: user.id,
-        total,
-        itemsJson: JSON.stringify(items),
-      }),
-    });
-    // clear user's cart items
-    for (const ci of cart) {
-      await fetch(`${API}/cart/${user.id}/${ci.productId}`, {
-        method: "DELETE",
-      });
+    // server prices the cart, takes the stock and clears the cart in one transaction
+    const res = await fetch(`${API}/orders/checkout/${user.id}`, { method: "POST" });
+    if (!res.ok) {
+      alert(res.status === 409 ? "Some items are out of stock" : "Could not place order");
+      return;
     }
     await reloadCart();
     setCurrentView("orders");
@@ -115,8 +115,15 @@ const Checkout = ({ user, cart = [], setCurrentView, reloadCart, reloadOrders })
       const res = await fetch(`${API}/payment/create-payment-intent`, {
         method: "POST",
         headers: { "Content-Type": "application/json" },
-        body: JSON.stringify({ amount: Math.round(amount * 100) }), // paise
+        // Amount and idempotency key are derived from the server-side cart
+        body: JSON.stringify({ userId: user.id }),
       });
+      if (!res.ok) {
+        setMessage(res.status === 503 || res.status === 504
+          ? "Payments are temporarily unavailable. Please try again shortly."
+          : "Could not start the payment.");
+        return;
+      }
       const { clientSecret } = await res.json();
       if (!clientSecret) throw new Error("Missing clientSecret");
 
@@ -137,35 +144,14 @@ const Checkout = ({ user, cart = [], setCurrentView, reloadCart, reloadOrders })
         return;
       }
 
-      // 3) Build order payload
-      const itemsPayload = (Array.isArray(cart) ? cart : Object.values(cart || {})).map((i) => ({
-        productId: i.product?.id || i.productId,
-        quantity: i.quantity,
-        price: getUnitPrice(i),
-      }));
-      const total = itemsPayload.reduce((s, it) => s + it.price * it.quantity, 0);
-
-      // 4) Create order
-      await fetch(`${API}/orders`, {
-        method: "POST",
-        headers: { "Content-Type": "application/json" },
-        body: JSON.stringify({
-          userId: user.id,
-          total,
-          itemsJson: JSON.stringify(itemsPayload),
-          paymentIntentId: result.paymentIntent.id,
-        }),
-      });
-
-      // 5) Clear cart server-side
-      for (const ci of (Array.isArray(cart) ? cart : [])) {
-        const pid = ci.productId ?? ci.product?.id;
-        if (pid) {
-          try { await fetch(`${API}/cart/${user.id}/${pid}`, { method: "DELETE" }); } catch {}
-        }
+      // 3) Place order server-side: prices, stock and cart cleanup happen in one transaction
+      const orderRes = await fetch(`${API}/orders/checkout/${user.id}`, { method: "POST" });
+      if (!orderRes.ok) {
+        setMessage(orderRes.status === 409 ? "Some items are out of stock." : "Could not place the order.");
+        return;
       }
 
-      // 6) Refresh UI and go to Orders
+      // 4) Refresh UI and go to Orders
       if (typeof reloadCart === "function") await reloadCart();
       if (typeof reloadOrders === "function") await reloadOrders();
 
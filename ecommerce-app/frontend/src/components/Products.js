@@ -114,8 +114,10 @@ function buildDetails(p = {}) {
   };
 }
 
-const Products = ({ user, cart, setCart, wishlist = [], reloadCart, reloadWishlist }) => {
+const Products = ({ user, cart, setCart, wishlist = [], reloadCart, reloadWishlist, searchQuery = "" }) => {
   const [products, setProducts] = useState([]);
+  const [searchIds, setSearchIds] = useState(null); // ranked product ids from the server-side index, null = no search
+  const [wishlisted, setWishlisted] = useState(() => new Set()); // ids of shown products the user has wishlisted
   const [activeCategory, setActiveCategory] = useState("all");
   const [showTabs, setShowTabs] = useState(false);
   const [loading, setLoading] = useState(true);
@@ -164,6 +166,44 @@ const Products = ({ user, cart, setCart, wishlist = [], reloadCart, reloadWishli
     return () => (mounted = false);
   }, []);
 
+  // Live stock and price changes pushed by the server instead of re-polling the catalog
+  useEffect(() => {
+    const source = new EventSource(`${API}/products/feed`);
+    source.addEventListener("inventory", (e) => {
+      const changes = new Map(JSON.parse(e.data).map((u) => [u.id, u]));
+      setProducts((prev) => prev
+        .filter((p) => !changes.get(p.id)?.removed)
+        .map((p) => {
+          const u = changes.get(p.id);
+          return u ? { ...p, price: u.price, quantity: u.quantity, category: u.category } : p;
+        }));
+    });
+    // Updates were dropped for this connection; re-read the catalog
+    source.addEventListener("reset", () => {
+      fetch(`${API}/products`, { cache: "no-cache" }).then((res) => (res.ok ? res.json() : null))
+        .then((data) => { if (Array.isArray(data)) setProducts(data); })
+        .catch(() => {});
+    });
+    return () => source.close();
+  }, []);
+
+  // Server-side search, debounced; results are ranked ids resolved against the loaded catalog
+  useEffect(() => {
+    const q = searchQuery.trim();
+    if (!q) { setSearchIds(null); return; }
+    const ctrl = new AbortController();
+    const timer = setTimeout(async () => {
+      try {
+        const res = await fetch(`${API}/products/search?q=${encodeURIComponent(searchQuery)}&limit=100`, { signal: ctrl.signal });
+        const hits = res.ok ? await res.json() : [];
+        setSearchIds(Array.isArray(hits) ? hits.map((h) => h.id) : []);
+      } catch (e) {
+        if (e.name !== "AbortError") setSearchIds([]);
+      }
+    }, 150);
+    return () => { clearTimeout(timer); ctrl.abort(); };
+  }, [searchQuery]);
+
   // Build categories list dynamically from products
   const categories = useMemo(() => {
     const set = new Set(["all"]);
@@ -173,9 +213,26 @@ const Products = ({ user, cart, setCart, wishlist = [], reloadCart, reloadWishli
 
   // Filtered products
   const filtered = useMemo(() => {
-    if (activeCategory === "all") return products;
-    return products.filter((p) => norm(p.category) === activeCategory);
-  }, [products, activeCategory]);
+    let list = products;
+    if (searchIds) {
+      const byId = new Map(products.map((p) => [p.id, p]));
+      list = searchIds.map((id) => byId.get(id)).filter(Boolean);
+    }
+    if (activeCategory === "all") return list;
+    return list.filter((p) => norm(p.category) === activeCategory);
+  }, [products, activeCategory, searchIds]);
+
+  // Wishlist hearts for the whole grid in one request, refreshed when the grid or wishlist changes
+  const shownIds = useMemo(() => filtered.slice(0, 500).map((p) => p.id).join(","), [filtered]);
+  useEffect(() => {
+    if (!user || !shownIds) { setWishlisted(new Set()); return; }
+    const ctrl = new AbortController();
+    fetch(`${API}/wishlist/${user.id}/exists?productIds=${shownIds}`, { signal: ctrl.signal })
+      .then((res) => (res.ok ? res.json() : []))
+      .then((ids) => setWishlisted(new Set(Array.isArray(ids) ? ids : [])))
+      .catch((e) => { if (e.name !== "AbortError") setWishlisted(new Set()); });
+    return () => ctrl.abort();
+  }, [user, shownIds, wishlist]);
 
   // Backend ops
   async function fetchJson(url, options) {
@@ -207,8 +264,7 @@ const Products = ({ user, cart, setCart, wishlist = [], reloadCart, reloadWishli
   const toggleWishlistBackend = async (product) => {
     if (!user) return alert("Please login");
     try {
-      const exists = await fetchJson(`${API}/wishlist/exists/${user.id}/${product.id}`);
-      if (exists) {
+      if (wishlisted.has(product.id)) {
         const res = await fetch(`${API}/wishlist/${user.id}/${product.id}`, { method: "DELETE" });
         if (!res.ok) throw new Error("Delete wishlist failed");
       } else {
@@ -288,9 +344,7 @@ const Products = ({ user, cart, setCart, wishlist = [], reloadCart, reloadWishli
                 onError={(e) => (e.currentTarget.src = "https://picsum.photos/300")}
               />
               <button
-                className={`wishlist-heart ${
-                  wishlist.some((w) => w.product && w.product.id === p.id) ? "active" : ""
-                }`}
+                className={`wishlist-heart ${wishlisted.has(p.id) ? "active" : ""}`}
                 onClick={(e) => {
                   e.stopPropagation();
                   toggleWishlistBackend(p);
@@ -299,8 +353,8 @@ const Products = ({ user, cart, setCart, wishlist = [], reloadCart, reloadWishli
                 title="Add to wishlist"
               >
                 <Heart
-                  color={wishlist.some((w) => w.product && w.product.id === p.id) ? "red" : "gray"}
-                  fill={wishlist.some((w) => w.product && w.product.id === p.id) ? "red" : "none"}
+                  color={wishlisted.has(p.id) ? "red" : "gray"}
+                  fill={wishlisted.has(p.id) ? "red" : "none"}
                 />
               </button>
             </div>